@@ -0,0 +1,136 @@
+package com.example.eventexplorer.benchmarks;
+
+import com.example.eventexplorer.EventExplorerBackendApplication;
+import com.example.eventexplorer.config.SequenceAligner;
+import com.example.eventexplorer.repository.EventRepository;
+import com.example.eventexplorer.search.EventSearchIndex;
+import com.example.eventexplorer.search.UpcomingEventIndex;
+import com.example.eventexplorer.service.CatalogVersion;
+import com.example.eventexplorer.service.ParticipationStatusIndex;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The real application on a random port, backed by a throwaway embedded PostgreSQL.
+ */
+public final class BenchmarkBackend implements AutoCloseable {
+
+    public static final String PASSWORD = "secret1";
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkBackend(EmbeddedPostgres postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    /**
+     * Starts PostgreSQL and the application; {@code extraArgs} are passed on as Spring arguments.
+     */
+    public static BenchmarkBackend start(String... extraArgs) {
+        EmbeddedPostgres postgres;
+        try {
+            postgres = EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+        }
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--app.auth.token-secret=benchmark-token-secret",
+                "--logging.level.root=WARN"));
+        args.addAll(Arrays.asList(extraArgs));
+        try {
+            ConfigurableApplicationContext context = SpringApplication.run(
+                    EventExplorerBackendApplication.class, args.toArray(String[]::new));
+            return new BenchmarkBackend(postgres, context);
+        } catch (RuntimeException e) {
+            closeQuietly(postgres);
+            throw e;
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int port() {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    /**
+     * Inserts {@code users} users named {@code user1..userN} (password {@link #PASSWORD}),
+     * {@code events} future events, and {@code participations} distinct participations spread
+     * over them. Rows go in with set-based SQL; derived state is then brought up to date.
+     */
+    public void seed(int users, int events, long participations) {
+        if (participations > (long) users * events) {
+            throw new IllegalArgumentException("At most users * events participations are possible");
+        }
+        JdbcTemplate jdbc = bean(JdbcTemplate.class);
+        String hash = bean(PasswordEncoder.class).encode(PASSWORD);
+        long userBase = jdbc.queryForObject("select coalesce(max(id), 0) from users", Long.class);
+        long eventBase = jdbc.queryForObject("select coalesce(max(id), 0) from events", Long.class);
+        long participationBase = jdbc.queryForObject(
+                "select coalesce(max(id), 0) from event_participation", Long.class);
+
+        jdbc.update("insert into users (id, username, password, role) " +
+                "select ? + g, 'user' || g, ?, 'USER' from generate_series(1, ?) g", userBase, hash, users);
+        jdbc.update("insert into events (id, title, description, date, location, category, " +
+                "interested_count, going_count) " +
+                "select ? + g, 'Event ' || g, 'Description of benchmark event ' || g || ' with live music', " +
+                "localtimestamp + make_interval(hours => g), " +
+                "(array['Skopje', 'Ohrid', 'Bitola', 'Struga'])[1 + g % 4], " +
+                "(array['Concert', 'Exhibition', 'Theater'])[1 + g % 3], 0, 0 " +
+                "from generate_series(1, ?) g", eventBase, events);
+        // Walks users first, then events, so every (user, event) pair is distinct
+        jdbc.update("insert into event_participation (id, user_id, event_id, status) " +
+                "select ? + g, ? + 1 + (g - 1) % ?, ? + 1 + ((g - 1) / ?) % ?, " +
+                "case when g % 2 = 0 then 'GOING' else 'INTERESTED' end " +
+                "from generate_series(1::bigint, ?) g",
+                participationBase, userBase, users, eventBase, users, events, participations);
+
+        bean(SequenceAligner.class).run();
+        new TransactionTemplate(bean(PlatformTransactionManager.class)).executeWithoutResult(
+                status -> bean(EventRepository.class).reconcileParticipationCounts());
+        bean(EventSearchIndex.class).rebuild();
+        bean(UpcomingEventIndex.class).rebuild();
+        // Seeded behind the services' backs, so nothing derived from earlier reads may survive
+        bean(ParticipationStatusIndex.class).invalidateAll();
+        bean(CatalogVersion.class).bumpAll();
+    }
+
+    @Override
+    public void close() {
+        try {
+            context.close();
+        } finally {
+            closeQuietly(postgres);
+        }
+    }
+
+    private static void closeQuietly(EmbeddedPostgres postgres) {
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            // Temporary data directory; nothing to recover
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.eventexplorer.benchmarks;
+
+import com.example.eventexplorer.model.Event;
+import com.example.eventexplorer.model.ParticipationStatus;
+import com.example.eventexplorer.service.CatalogVersion;
+import com.example.eventexplorer.service.EventMapper;
+import com.example.eventexplorer.service.ImageStorageService;
+import com.example.eventexplorer.service.ImageVariantService;
+import com.example.eventexplorer.service.ParticipationCounterStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Detached events shaped like the seeded catalog, for benchmarks that need no database.
+ */
+final class EventFixtures {
+
+    private static final String[] LOCATIONS = {"Skopje", "Ohrid", "Bitola", "Struga"};
+    private static final String[] CATEGORIES = {"Concert", "Exhibition", "Theater"};
+
+    private EventFixtures() {
+    }
+
+    /**
+     * A mapper outside Spring; no image has variants, so every lookup misses.
+     */
+    static EventMapper mapper(ParticipationCounterStore counterStore) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ImageVariantService variants = new ImageVariantService(new ImageStorageService("uploads/events"),
+                new CatalogVersion(), registry, new int[]{320, 640, 1280}, 0.8f, 1, 1);
+        return new EventMapper(counterStore, variants);
+    }
+
+    static List<Event> events(int count) {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 20, 0);
+        List<Event> events = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Event event = new Event();
+            event.setId((long) i);
+            event.setTitle("Event " + i);
+            event.setDescription("Description of benchmark event " + i + " with live music");
+            event.setDate(start.plusHours(i));
+            event.setLocation(LOCATIONS[i % LOCATIONS.length]);
+            event.setCategory(CATEGORIES[i % CATEGORIES.length]);
+            event.setImageUrl(i % 2 == 0 ? "/api/images/event-" + i + ".jpg" : null);
+            event.setInterestedCount(i % 50);
+            event.setGoingCount(i % 20);
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * A status on every tenth event, as for a fairly active user.
+     */
+    static Map<Long, ParticipationStatus> statuses(List<Event> events) {
+        Map<Long, ParticipationStatus> statuses = new HashMap<>();
+        for (Event event : events) {
+            if (event.getId() % 10 == 0) {
+                statuses.put(event.getId(), event.getId() % 20 == 0
+                        ? ParticipationStatus.GOING : ParticipationStatus.INTERESTED);
+            }
+        }
+        return statuses;
+    }
+}
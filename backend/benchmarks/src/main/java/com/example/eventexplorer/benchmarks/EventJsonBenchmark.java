@@ -0,0 +1,43 @@
+package com.example.eventexplorer.benchmarks;
+
+import com.example.eventexplorer.dto.EventDto;
+import com.example.eventexplorer.service.EventMapper;
+import com.example.eventexplorer.service.ParticipationCounterStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing the catalog response body, with the same Jackson setup Spring MVC uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EventJsonBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<EventDto> dtos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        EventMapper mapper = EventFixtures.mapper(new ParticipationCounterStore(null, null, new SimpleMeterRegistry()));
+        dtos = mapper.toDtos(EventFixtures.events(size), Map.of());
+    }
+
+    @Benchmark
+    public byte[] writeList() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.eventexplorer.benchmarks;
+
+import com.example.eventexplorer.dto.EventDto;
+import com.example.eventexplorer.model.Event;
+import com.example.eventexplorer.model.ParticipationStatus;
+import com.example.eventexplorer.service.EventMapper;
+import com.example.eventexplorer.service.ParticipationCounterStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping with counts from a warm {@link ParticipationCounterStore}, i.e. the
+ * in-memory part of {@code getAllEventsForUser} and {@code toDtoWithCountsAndStatus}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventMappingBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private EventMapper mapper;
+    private List<Event> events;
+    private Map<Long, ParticipationStatus> statuses;
+    private Event single;
+
+    @Setup
+    public void setUp() {
+        // No repository or transactions needed: every lookup is seeded from the loaded entity
+        ParticipationCounterStore counterStore = new ParticipationCounterStore(null, null, new SimpleMeterRegistry());
+        mapper = EventFixtures.mapper(counterStore);
+        events = EventFixtures.events(size);
+        statuses = EventFixtures.statuses(events);
+        single = events.get(events.size() / 2);
+        mapper.toDtos(events, statuses);
+    }
+
+    @Benchmark
+    public List<EventDto> toDtos() {
+        return mapper.toDtos(events, statuses);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public EventDto toDto() {
+        return mapper.toDto(single, ParticipationStatus.GOING);
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.eventexplorer.benchmarks;
+
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-loop HTTP load against the real application on an embedded PostgreSQL.
+ *
+ * <p>Seeds the database, logs {@code clients} random users in, and has them send a weighted mix
+ * of requests at a fixed total {@code rate}. Each client's requests are scheduled at fixed
+ * intervals, and latency is measured from the scheduled start rather than from the send, so
+ * a stalled server is charged for the requests that queued behind it instead of the generator
+ * quietly slowing down (coordinated omission). Catalog reads are sent without credentials,
+ * as a browser that is not logged in would, so they take the shared snapshot path. Latency
+ * after the warmup is recorded per endpoint in HdrHistograms. With {@code --threads both} the
+ * run is repeated on platform and on virtual request threads, on a fresh database each time.
+ *
+ * <pre>
+ * mvn compile exec:java -Dexec.args="--users 1000 --events 1000 --participations 20000 --clients 64 --rate 2000"
+ * </pre>
+ *
+ * Give enough clients for the rate: one that is still waiting for a response when its next
+ * request is due sends it late, and that delay shows up in the latencies.
+ *
+ * The generator shares the machine with the application and the database, so compare runs
+ * made on the same host rather than reading the numbers as absolute capacity. Both runs of
+ * {@code --threads both} share one JVM; for a strict comparison run each mode on its own.
+ */
+public final class LoadTest {
+
+    enum Endpoint {
+        EVENTS("GET /events (anonymous)"),
+        EVENT("GET /events/{id} (anonymous)"),
+        MARK("POST /events/{id}/participation"),
+        REMOVE("DELETE /events/{id}/participation"),
+        ME("GET /api/auth/me");
+
+        final String label;
+
+        Endpoint(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final long HIGHEST_TRACKABLE_NANOS = Duration.ofMinutes(1).toNanos();
+
+    private final Options options;
+
+    private LoadTest(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        LoadTest test = new LoadTest(options);
+        switch (options.threads) {
+            case "platform" -> test.run(false);
+            case "virtual" -> test.run(true);
+            case "both" -> {
+                test.run(false);
+                test.run(true);
+            }
+            default -> throw new IllegalArgumentException("--threads must be platform, virtual or both");
+        }
+        System.exit(0);
+    }
+
+    private void run(boolean virtualThreads) throws Exception {
+        System.out.printf("%n== %s threads: %d users, %d events, %d participations, %d clients at %d req/s, %s measured ==%n",
+                virtualThreads ? "virtual" : "platform", options.users, options.events, options.participations,
+                options.clients, options.rate, options.duration);
+        try (BenchmarkBackend backend = BenchmarkBackend.start(
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                // Keep the application log quiet while the load runs
+                "--logging.level.com.example=WARN")) {
+            backend.seed(options.users, options.events, options.participations);
+            String baseUrl = "http://localhost:" + backend.port();
+
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient http = HttpClient.newBuilder()
+                        .executor(clients)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+
+                // Logins are throttled by admission control, so the schedule starts once all are in
+                List<Future<Client>> loggedIn = new ArrayList<>();
+                for (int i = 0; i < options.clients; i++) {
+                    Client client = new Client(http, baseUrl, "user" + (1 + i % options.users));
+                    loggedIn.add(clients.submit(client::login));
+                }
+                List<Client> ready = new ArrayList<>();
+                for (Future<Client> future : loggedIn) {
+                    ready.add(future.get());
+                }
+
+                long start = System.nanoTime();
+                long warmupEnd = start + options.warmup.toNanos();
+                long end = warmupEnd + options.duration.toNanos();
+                long interval = TimeUnit.SECONDS.toNanos(options.clients) / options.rate;
+                List<Future<Client>> futures = new ArrayList<>();
+                for (int i = 0; i < ready.size(); i++) {
+                    Client client = ready.get(i);
+                    // Spread the clients' schedules evenly over one interval
+                    long first = start + interval * i / options.clients;
+                    futures.add(clients.submit(() -> client.run(first, interval, warmupEnd, end)));
+                }
+
+                Map<Endpoint, Histogram> latencies = new EnumMap<>(Endpoint.class);
+                Map<Endpoint, Long> errors = new EnumMap<>(Endpoint.class);
+                for (Future<Client> future : futures) {
+                    Client client = future.get();
+                    client.latencies.forEach((endpoint, histogram) ->
+                            latencies.computeIfAbsent(endpoint, e -> newHistogram()).add(histogram));
+                    client.errors.forEach((endpoint, count) -> errors.merge(endpoint, count, Long::sum));
+                }
+                report(latencies, errors);
+            }
+        }
+    }
+
+    private void report(Map<Endpoint, Histogram> latencies, Map<Endpoint, Long> errors) {
+        double seconds = options.duration.toNanos() / 1e9;
+        System.out.printf("%-36s %9s %9s %9s %9s %9s %9s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        Histogram total = newHistogram();
+        long totalErrors = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = latencies.get(endpoint);
+            long failed = errors.getOrDefault(endpoint, 0L);
+            if (histogram == null) {
+                continue;
+            }
+            total.add(histogram);
+            totalErrors += failed;
+            printRow(endpoint.label, histogram, seconds, failed);
+        }
+        printRow("all", total, seconds, totalErrors);
+    }
+
+    private static void printRow(String label, Histogram histogram, double seconds, long errors) {
+        System.out.printf(Locale.ROOT, "%-36s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7d%n",
+                label,
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1e6,
+                histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6,
+                histogram.getMaxValue() / 1e6,
+                errors);
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+    }
+
+    /**
+     * One simulated user sending a request every {@code interval}; its histograms are only
+     * touched by itself.
+     */
+    private final class Client {
+
+        private final HttpClient http;
+        private final String baseUrl;
+        private final String username;
+        private final Map<Endpoint, Histogram> latencies = new EnumMap<>(Endpoint.class);
+        private final Map<Endpoint, Long> errors = new EnumMap<>(Endpoint.class);
+        private String authorization;
+
+        Client(HttpClient http, String baseUrl, String username) {
+            this.http = http;
+            this.baseUrl = baseUrl;
+            this.username = username;
+        }
+
+        Client run(long first, long interval, long warmupEnd, long end) throws Exception {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (long scheduled = first; scheduled < end; scheduled += interval) {
+                long wait;
+                while ((wait = scheduled - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Endpoint endpoint = options.pick(random.nextInt(options.totalWeight));
+                HttpRequest request = request(endpoint, random);
+                int status;
+                try {
+                    status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (java.io.IOException e) {
+                    status = -1;
+                }
+                // From when the request was due, not from when it could be sent
+                long elapsed = System.nanoTime() - scheduled;
+                if (scheduled < warmupEnd) {
+                    continue;
+                }
+                if (status / 100 != 2) {
+                    errors.merge(endpoint, 1L, Long::sum);
+                } else {
+                    latencies.computeIfAbsent(endpoint, e -> newHistogram())
+                            .recordValue(Math.min(elapsed, HIGHEST_TRACKABLE_NANOS));
+                }
+            }
+            return this;
+        }
+
+        Client login() throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"username\":\"" + username + "\",\"password\":\"" + BenchmarkBackend.PASSWORD + "\"}"))
+                    .build();
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            // All clients log in at once, so most are shed by admission control and told when to retry
+            while (response.statusCode() == 429 || response.statusCode() == 503) {
+                long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                Thread.sleep(Duration.ofSeconds(retryAfter).toMillis()
+                        + ThreadLocalRandom.current().nextLong(TimeUnit.SECONDS.toMillis(1)));
+                response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            }
+            String body = response.body();
+            Matcher matcher = TOKEN.matcher(body);
+            if (!matcher.find()) {
+                throw new IllegalStateException("Login failed for " + username + ": " + body);
+            }
+            authorization = "Bearer " + matcher.group(1);
+            return this;
+        }
+
+        private HttpRequest request(Endpoint endpoint, ThreadLocalRandom random) {
+            long eventId = 1 + random.nextInt(options.events);
+            HttpRequest.Builder builder = switch (endpoint) {
+                case EVENTS -> HttpRequest.newBuilder(URI.create(baseUrl + "/events")).GET();
+                case EVENT -> HttpRequest.newBuilder(URI.create(baseUrl + "/events/" + eventId)).GET();
+                case MARK -> HttpRequest.newBuilder(URI.create(baseUrl + "/events/" + eventId + "/participation"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                random.nextBoolean() ? "{\"status\":\"GOING\"}" : "{\"status\":\"INTERESTED\"}"));
+                case REMOVE -> HttpRequest.newBuilder(URI.create(baseUrl + "/events/" + eventId + "/participation"))
+                        .DELETE();
+                case ME -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/me")).GET();
+            };
+            builder.timeout(Duration.ofSeconds(30));
+            // Catalog reads go out anonymous, like the catalog page before login, and accept gzip like a browser
+            if (endpoint == Endpoint.EVENTS || endpoint == Endpoint.EVENT) {
+                return builder.header("Accept-Encoding", "gzip").build();
+            }
+            return builder.header("Authorization", authorization).build();
+        }
+    }
+
+    static final class Options {
+        int users = 1000;
+        int events = 1000;
+        long participations = 20_000;
+        int clients = 64;
+        int rate = 1000;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(30);
+        String threads = "both";
+        final Map<Endpoint, Integer> mix = new LinkedHashMap<>(Map.of(
+                Endpoint.EVENTS, 40,
+                Endpoint.EVENT, 30,
+                Endpoint.MARK, 15,
+                Endpoint.REMOVE, 5,
+                Endpoint.ME, 10));
+        int totalWeight;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--users" -> options.users = Integer.parseInt(value);
+                    case "--events" -> options.events = Integer.parseInt(value);
+                    case "--participations" -> options.participations = Long.parseLong(value);
+                    case "--clients" -> options.clients = Integer.parseInt(value);
+                    case "--rate" -> options.rate = Integer.parseInt(value);
+                    case "--warmup" -> options.warmup = Duration.parse(value);
+                    case "--duration" -> options.duration = Duration.parse(value);
+                    case "--threads" -> options.threads = value;
+                    // e.g. events=40,event=30,mark=15,remove=5,me=10
+                    case "--mix" -> {
+                        options.mix.clear();
+                        for (String part : value.split(",")) {
+                            String[] weight = part.split("=");
+                            options.mix.put(Endpoint.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)),
+                                    Integer.parseInt(weight[1].trim()));
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (options.rate <= 0) {
+                throw new IllegalArgumentException("--rate must be positive");
+            }
+            options.totalWeight = options.mix.values().stream().mapToInt(Integer::intValue).sum();
+            if (options.totalWeight <= 0) {
+                throw new IllegalArgumentException("--mix needs at least one positive weight");
+            }
+            return options;
+        }
+
+        Endpoint pick(int roll) {
+            for (Map.Entry<Endpoint, Integer> entry : mix.entrySet()) {
+                roll -= entry.getValue();
+                if (roll < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException("Roll outside the mix");
+        }
+    }
+}
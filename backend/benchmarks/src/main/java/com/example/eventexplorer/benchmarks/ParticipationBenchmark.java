@@ -0,0 +1,107 @@
+package com.example.eventexplorer.benchmarks;
+
+import com.example.eventexplorer.dto.EventDto;
+import com.example.eventexplorer.dto.ParticipationChangeRequest;
+import com.example.eventexplorer.dto.ParticipationRequest;
+import com.example.eventexplorer.model.ParticipationStatus;
+import com.example.eventexplorer.service.EventService;
+import com.example.eventexplorer.service.ParticipationService;
+import com.example.eventexplorer.service.UserCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service calls against the real application and an embedded PostgreSQL: participation
+ * writes, single and batched, and the catalog reads that map events with counts and statuses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ParticipationBenchmark {
+
+    private static final ParticipationStatus[] STATUSES = ParticipationStatus.values();
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"1000"})
+    public int events;
+
+    @Param({"20000"})
+    public long participations;
+
+    private BenchmarkBackend backend;
+    private ParticipationService participationService;
+    private EventService eventService;
+    private UserCache userCache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        backend = BenchmarkBackend.start();
+        backend.seed(users, events, participations);
+        participationService = backend.bean(ParticipationService.class);
+        eventService = backend.bean(EventService.class);
+        userCache = backend.bean(UserCache.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        backend.close();
+    }
+
+    @Benchmark
+    public void markParticipation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ParticipationRequest request = new ParticipationRequest();
+        request.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+        participationService.markParticipation(randomEventId(random), randomUserId(random), request);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void applyParticipationsBatch() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<ParticipationChangeRequest> changes = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ParticipationChangeRequest change = new ParticipationChangeRequest();
+            change.setEventId(randomEventId(random));
+            // One in three removes, the rest set a status
+            int pick = random.nextInt(STATUSES.length + 1);
+            change.setStatus(pick < STATUSES.length ? STATUSES[pick] : null);
+            changes.add(change);
+        }
+        participationService.applyParticipations(randomUsername(random), changes);
+    }
+
+    @Benchmark
+    public EventDto getEventByIdForUser() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return eventService.getEventByIdForUser(randomEventId(random), randomUsername(random));
+    }
+
+    @Benchmark
+    public List<EventDto> getAllEventsForUser() {
+        return eventService.getAllEventsForUser(randomUsername(ThreadLocalRandom.current()));
+    }
+
+    // Seeded ids follow the admin user and start at 1 for events on a fresh database
+    private long randomEventId(ThreadLocalRandom random) {
+        return 1 + random.nextInt(events);
+    }
+
+    private long randomUserId(ThreadLocalRandom random) {
+        return userCache.get(randomUsername(random)).orElseThrow().getId();
+    }
+
+    private String randomUsername(ThreadLocalRandom random) {
+        return "user" + (1 + random.nextInt(users));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.eventexplorer.admission;
+
+import com.example.eventexplorer.admission.AdmissionControlFilter.EndpointClass;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Admission control in front of the connection pool and password hashing: concurrency limits
+ * per endpoint class and token buckets for registrations and participation writes, exported
+ * as {@code admission.requests}, {@code admission.wait} and {@code admission.in-flight}.
+ * On unless {@code app.admission.enabled=false}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            MeterRegistry meterRegistry,
+            @Qualifier("corsConfigurationSource") CorsConfigurationSource corsConfigurationSource,
+            @Value("${app.admission.max-wait:PT0.5S}") Duration maxWait,
+            @Value("${app.admission.catalog.concurrency:64}") int catalogConcurrency,
+            @Value("${app.admission.participation.concurrency:16}") int participationConcurrency,
+            @Value("${app.admission.register.burst:5}") int registerBurst,
+            @Value("${app.admission.register.refill:PT12S}") Duration registerRefill,
+            @Value("${app.admission.max-keys:100000}") long maxKeys) {
+        Map<EndpointClass, ConcurrencyLimit> limits = new EnumMap<>(EndpointClass.class);
+        limits.put(EndpointClass.CATALOG,
+                new ConcurrencyLimit(EndpointClass.CATALOG.tag(), catalogConcurrency, maxWait, meterRegistry));
+        limits.put(EndpointClass.PARTICIPATION,
+                new ConcurrencyLimit(EndpointClass.PARTICIPATION.tag(), participationConcurrency, maxWait, meterRegistry));
+        RateLimiter registrations = new RateLimiter("register", registerBurst, registerRefill, maxKeys, meterRegistry);
+        long retryAfterSeconds = Math.max(1, maxWait.toSeconds());
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(limits, registrations, retryAfterSeconds, corsConfigurationSource));
+        // Inside the query metrics filter, outside Spring Security so that password checks queue here
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+
+    /**
+     * Password hashing slots, taken by {@link AdmittedPasswordEncoder} around each BCrypt call.
+     */
+    @Bean
+    public ConcurrencyLimit authAdmissionLimit(
+            MeterRegistry meterRegistry,
+            @Value("${app.admission.max-wait:PT0.5S}") Duration maxWait,
+            @Value("${app.admission.auth.concurrency:4}") int authConcurrency) {
+        return new ConcurrencyLimit(EndpointClass.AUTH.tag(), authConcurrency, maxWait, meterRegistry);
+    }
+
+    @Bean
+    public WebMvcConfigurer participationRateLimitWebMvcConfigurer(
+            MeterRegistry meterRegistry,
+            @Value("${app.admission.participation.burst:20}") int burst,
+            @Value("${app.admission.participation.refill:PT0.1S}") Duration refill,
+            @Value("${app.admission.max-keys:100000}") long maxKeys) {
+        ParticipationRateLimitInterceptor interceptor = new ParticipationRateLimitInterceptor(
+                new RateLimiter(EndpointClass.PARTICIPATION.tag(), burst, refill, maxKeys, meterRegistry));
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor)
+                        .addPathPatterns("/events/*/participation", "/events/participation/batch");
+            }
+        };
+    }
+}
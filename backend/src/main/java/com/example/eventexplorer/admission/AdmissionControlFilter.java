@@ -0,0 +1,165 @@
+package com.example.eventexplorer.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.CorsProcessor;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits requests to the expensive parts of the API through a {@link ConcurrencyLimit} per
+ * {@link EndpointClass}, and registrations through a per-address {@link RateLimiter}.
+ *
+ * <p>Password checks are limited by {@link AdmittedPasswordEncoder}, which holds an
+ * {@link EndpointClass#AUTH} permit only while hashing; this filter runs ahead of Spring Security
+ * so it can answer that encoder's rejections too. Requests that cannot get a permit within the
+ * wait budget are answered {@code 503}, rate-limited ones {@code 429}, both with
+ * {@code Retry-After}.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    public enum EndpointClass {
+        CATALOG, PARTICIPATION, AUTH;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final Map<EndpointClass, ConcurrencyLimit> limits;
+    private final RateLimiter registrations;
+    private final long retryAfterSeconds;
+    private final CorsConfigurationSource corsConfigurationSource;
+    private final CorsProcessor corsProcessor = new DefaultCorsProcessor();
+
+    public AdmissionControlFilter(Map<EndpointClass, ConcurrencyLimit> limits, RateLimiter registrations,
+                                  long retryAfterSeconds, CorsConfigurationSource corsConfigurationSource) {
+        this.limits = limits;
+        this.registrations = registrations;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.corsConfigurationSource = corsConfigurationSource;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isRegistration(request)) {
+            long wait = registrations.tryAcquire(clientAddress(request));
+            if (wait > 0) {
+                if (withCors(request, response)) {
+                    reject(response, 429, wait, "Too many registrations, try again later");
+                }
+                return;
+            }
+        }
+
+        EndpointClass endpointClass = classify(request);
+        // No AUTH permit here: the password encoder takes it, so it is not held for the whole request
+        ConcurrencyLimit limit = endpointClass != null && endpointClass != EndpointClass.AUTH
+                ? limits.get(endpointClass) : null;
+        if (!acquire(limit)) {
+            overloaded(request, response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } catch (ServletException | RuntimeException e) {
+            if (response.isCommitted() || !AdmittedPasswordEncoder.isRejection(e)) {
+                throw e;
+            }
+            overloaded(request, response);
+        } finally {
+            release(limit);
+        }
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        if (path.startsWith("/api/auth/")) {
+            return HttpMethod.POST.matches(method) && (path.equals("/api/auth/login") || path.equals("/api/auth/register"))
+                    ? EndpointClass.AUTH : null;
+        }
+        if (!path.equals("/events") && !path.startsWith("/events/")) {
+            return null;
+        }
+        if (HttpMethod.GET.matches(method)) {
+            // Long-lived and holds no connection while open
+            return path.startsWith("/events/participation/stream") ? null : EndpointClass.CATALOG;
+        }
+        if ((HttpMethod.POST.matches(method) || HttpMethod.DELETE.matches(method)) && isParticipationWrite(path)) {
+            return EndpointClass.PARTICIPATION;
+        }
+        return null;
+    }
+
+    static boolean isParticipationWrite(String path) {
+        if (path.equals("/events/participation/batch")) {
+            return true;
+        }
+        int slash = path.indexOf('/', "/events/".length());
+        return slash > 0 && path.substring(slash).equals("/participation");
+    }
+
+    /**
+     * The client's address as Tomcat's remote IP valve resolved it from {@code X-Forwarded-For}
+     * ({@code server.forward-headers-strategy=native}); the peer address is only the last proxy.
+     */
+    static String clientAddress(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+    private static boolean isRegistration(HttpServletRequest request) {
+        return HttpMethod.POST.matches(request.getMethod())
+                && request.getRequestURI().substring(request.getContextPath().length()).equals("/api/auth/register");
+    }
+
+    private static boolean acquire(ConcurrencyLimit limit) throws ServletException {
+        try {
+            return limit == null || limit.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for admission", e);
+        }
+    }
+
+    private static void release(ConcurrencyLimit limit) {
+        if (limit != null) {
+            limit.release();
+        }
+    }
+
+    private void overloaded(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (withCors(request, response)) {
+            reject(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(retryAfterSeconds),
+                    "Server is busy, try again later");
+        }
+    }
+
+    // Spring Security adds CORS headers further down the chain, which a rejected request never reaches;
+    // false if the origin is not allowed and a 403 has been sent instead
+    private boolean withCors(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        return corsProcessor.processRequest(corsConfigurationSource.getCorsConfiguration(request), request, response);
+    }
+
+    static void reject(HttpServletResponse response, int status, long retryAfterNanos, String message)
+            throws IOException {
+        long seconds = Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(status);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
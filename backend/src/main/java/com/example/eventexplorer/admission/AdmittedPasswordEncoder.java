@@ -0,0 +1,77 @@
+package com.example.eventexplorer.admission;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs every hash and check of the delegate under the {@link AdmissionControlFilter.EndpointClass#AUTH}
+ * limit, so a permit is held only for the BCrypt work itself and not for the rest of the request.
+ * Without a permit within the wait budget it throws {@link Rejected}, which
+ * {@link AdmissionControlFilter} answers with {@code 503}.
+ */
+public class AdmittedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ConcurrencyLimit limit;
+
+    public AdmittedPasswordEncoder(PasswordEncoder delegate, ConcurrencyLimit limit) {
+        this.delegate = delegate;
+        this.limit = limit;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        acquire();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            limit.release();
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        acquire();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            limit.release();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private void acquire() {
+        try {
+            if (!limit.tryAcquire()) {
+                throw new Rejected();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Rejected();
+        }
+    }
+
+    /**
+     * No password check slot within the wait budget. Not an authentication failure, so Spring
+     * Security lets it propagate instead of answering {@code 401}.
+     */
+    public static class Rejected extends IllegalStateException {
+
+        Rejected() {
+            super("Server is busy, try again later");
+        }
+    }
+
+    // Thrown from a controller it arrives wrapped in a ServletException
+    static boolean isRejection(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof Rejected) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
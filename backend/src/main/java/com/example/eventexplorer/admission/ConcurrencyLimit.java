@@ -0,0 +1,67 @@
+package com.example.eventexplorer.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * At most {@code permits} requests of one endpoint class in flight. Further requests wait in
+ * arrival order for up to {@code maxWait}, the latency budget for queueing, and are then shed.
+ */
+public class ConcurrencyLimit {
+
+    private final int permits;
+    private final Semaphore semaphore;
+    private final long maxWaitNanos;
+    private final Counter admitted;
+    private final Counter rejected;
+    private final Timer wait;
+
+    public ConcurrencyLimit(String endpointClass, int permits, Duration maxWait, MeterRegistry meterRegistry) {
+        this.permits = permits;
+        this.semaphore = new Semaphore(permits, true);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.admitted = outcome(meterRegistry, endpointClass, "admitted");
+        this.rejected = outcome(meterRegistry, endpointClass, "rejected");
+        this.wait = Timer.builder("admission.wait")
+                .description("Time requests queued for an admission permit")
+                .tag("class", endpointClass)
+                .register(meterRegistry);
+        Gauge.builder("admission.in-flight", this, ConcurrencyLimit::inFlight)
+                .description("Admitted requests not yet completed")
+                .tag("class", endpointClass)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether a permit was obtained within the wait budget; if so it must be {@link #release}d.
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        long start = System.nanoTime();
+        boolean acquired = semaphore.tryAcquire() || semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        wait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (acquired ? admitted : rejected).increment();
+        return acquired;
+    }
+
+    public void release() {
+        semaphore.release();
+    }
+
+    private double inFlight() {
+        return permits - semaphore.availablePermits();
+    }
+
+    static Counter outcome(MeterRegistry meterRegistry, String endpointClass, String outcome) {
+        return Counter.builder("admission.requests")
+                .description("Requests by admission outcome")
+                .tag("class", endpointClass)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.eventexplorer.admission;
+
+import com.example.eventexplorer.config.AuthenticatedUser;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Rate-limits participation writes per user. Runs after authentication, so the bucket follows
+ * the account rather than a credential or address; unauthenticated requests never get here.
+ */
+public class ParticipationRateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter rateLimiter;
+
+    public ParticipationRateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        if (AdmissionControlFilter.classify(request) != AdmissionControlFilter.EndpointClass.PARTICIPATION) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String key = authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? "user:" + user.getId()
+                : "address:" + AdmissionControlFilter.clientAddress(request);
+        long wait = rateLimiter.tryAcquire(key);
+        if (wait > 0) {
+            AdmissionControlFilter.reject(response, 429, wait, "Too many participation changes, slow down");
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.eventexplorer.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+
+/**
+ * Token buckets keyed by caller: each holds up to {@code burst} tokens and gains one every
+ * {@code refill}. Idle buckets are dropped once they would have refilled completely.
+ */
+public class RateLimiter {
+
+    private final int burst;
+    private final long refillNanos;
+    private final Cache<String, TokenBucket> buckets;
+    private final Counter limited;
+
+    public RateLimiter(String endpointClass, int burst, Duration refill, long maxKeys, MeterRegistry meterRegistry) {
+        this.burst = burst;
+        this.refillNanos = refill.toNanos();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(refill.multipliedBy(burst))
+                .build();
+        this.limited = ConcurrencyLimit.outcome(meterRegistry, endpointClass, "rate-limited");
+    }
+
+    /**
+     * Takes a token for {@code key}; 0 when one was available, otherwise the nanoseconds until
+     * the next one.
+     */
+    public long tryAcquire(String key) {
+        long wait = buckets.get(key, k -> new TokenBucket()).take();
+        if (wait > 0) {
+            limited.increment();
+        }
+        return wait;
+    }
+
+    private final class TokenBucket {
+        // Time at which the bucket is full again; it holds burst - (fullAt - now) / refill tokens
+        private long fullAt = System.nanoTime();
+
+        synchronized long take() {
+            long now = System.nanoTime();
+            long taken = Math.max(fullAt, now) + refillNanos;
+            long excess = taken - now - burst * refillNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            fullAt = taken;
+            return 0;
+        }
+    }
+}
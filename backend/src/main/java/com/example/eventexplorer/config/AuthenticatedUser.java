@@ -0,0 +1,37 @@
+package com.example.eventexplorer.config;
+
+import com.example.eventexplorer.model.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Security principal that also carries the database id and role of the user,
+ * so request handling does not have to look them up again.
+ */
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+    private final Role role;
+
+    public AuthenticatedUser(Long id, String username, String password, Role role) {
+        super(username, password, authoritiesFor(role));
+        this.id = id;
+        this.role = role;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public static Collection<? extends GrantedAuthority> authoritiesFor(Role role) {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.eventexplorer.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Puts a {@link ConnectionLimitingDataSource} in front of the Hikari pool. On by default
+ * together with virtual threads; the permits default to the pool size.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.datasource.connection-limit.enabled", havingValue = "true")
+public class ConnectionLimitConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionLimitConfig.class);
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingPostProcessor(Environment environment) {
+        return new OrderedBeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                int permits = environment.getProperty("app.datasource.connection-limit.permits",
+                        Integer.class, hikari.getMaximumPoolSize());
+                Duration timeout = environment.getProperty("app.datasource.connection-limit.acquire-timeout",
+                        Duration.class, Duration.ofMillis(hikari.getConnectionTimeout()));
+                log.info("Limiting {} to {} concurrent connections", beanName, permits);
+                return new ConnectionLimitingDataSource(hikari, permits, timeout);
+            }
+        };
+    }
+
+    // Ordered, so it sees the Hikari pool before unordered post-processors wrap it
+    private interface OrderedBeanPostProcessor extends BeanPostProcessor, Ordered {
+        @Override
+        default int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
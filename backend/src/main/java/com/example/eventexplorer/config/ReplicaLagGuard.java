@@ -0,0 +1,77 @@
+package com.example.eventexplorer.config;
+
+import com.example.eventexplorer.service.EventChange;
+import com.example.eventexplorer.service.ParticipationChange;
+import com.example.eventexplorer.service.UserChange;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Decides when a read-only transaction must go to the primary because the replica may not
+ * have caught up yet, for {@code window} after a write.
+ *
+ * <p>Participation changes pin the user they belong to, which also covers changes written by
+ * the write-behind flusher; other users never read them from the replica, as counts and
+ * statuses are served from memory. Event changes pin everyone: event rows are what readers
+ * load from the replica, and the catalog ETags move on at commit, so a stale row read in that
+ * window would be cached under the new tag.
+ */
+public class ReplicaLagGuard {
+
+    private final long windowNanos;
+    private final Cache<Long, Boolean> recentWriters;
+    private volatile long allPinnedUntil = System.nanoTime();
+
+    public ReplicaLagGuard(Duration window, long maxUsers) {
+        this.windowNanos = window.toNanos();
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    /**
+     * Whether the current user must read from the primary.
+     */
+    public boolean isPinned() {
+        if (System.nanoTime() - allPinnedUntil < 0) {
+            return true;
+        }
+        Long userId = currentUserId();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    @TransactionalEventListener
+    public void onParticipationChange(ParticipationChange change) {
+        recentWriters.put(change.getUserId(), Boolean.TRUE);
+    }
+
+    @TransactionalEventListener
+    public void onEventChange(EventChange change) {
+        allPinnedUntil = System.nanoTime() + windowNanos;
+    }
+
+    @TransactionalEventListener
+    public void onUserChange(UserChange change) {
+        pinCurrentUser();
+    }
+
+    private void pinCurrentUser() {
+        Long userId = currentUserId();
+        if (userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? user.getId()
+                : null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.eventexplorer.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Connections for read-only transactions: from the replica, unless the current user is pinned
+ * by {@link ReplicaLagGuard} or the caller runs inside {@link #onPrimary}.
+ *
+ * <p>Installed as the read-only data source of a {@link LazyConnectionDataSourceProxy}, so the
+ * choice is made when a transaction marked read-only runs its first statement. Everything
+ * else, including work outside a transaction, uses the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagGuard guard;
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagGuard guard,
+                                    MeterRegistry meterRegistry) {
+        this.guard = guard;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.primaryReads = readCounter(meterRegistry, "primary");
+        this.replicaReads = readCounter(meterRegistry, "replica");
+    }
+
+    /**
+     * Runs {@code action} with read-only transactions it starts served by the primary, for
+     * readers whose result outlives the replica lag (e.g. cached snapshots). A transaction that
+     * already holds a connection keeps it.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (FORCE_PRIMARY.get() != null || guard.isPinned()) {
+            primaryReads.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("datasource.read-only.connections")
+                .description("Connections handed to read-only transactions")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
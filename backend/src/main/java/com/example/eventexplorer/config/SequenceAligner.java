@@ -0,0 +1,57 @@
+package com.example.eventexplorer.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves the id sequences past rows written while the tables still used identity columns.
+ * Runs once every singleton, the schema included, is ready and before the web server starts
+ * or any runner writes; a no-op once the sequences are ahead.
+ */
+@Component
+public class SequenceAligner implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceAligner.class);
+
+    // Must match the allocationSize of the entity sequence generators
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final List<Alignment> SEQUENCES = List.of(
+            new Alignment("events_seq",
+                    "select coalesce(max(id), 0) from events",
+                    "select last_value from events_seq"),
+            new Alignment("users_seq",
+                    "select coalesce(max(id), 0) from users",
+                    "select last_value from users_seq"),
+            new Alignment("event_participation_seq",
+                    "select coalesce(max(id), 0) from event_participation",
+                    "select last_value from event_participation_seq"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceAligner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Alignment alignment : SEQUENCES) {
+            Long maxId = jdbcTemplate.queryForObject(alignment.maxIdQuery(), Long.class);
+            Long lastValue = jdbcTemplate.queryForObject(alignment.lastValueQuery(), Long.class);
+            if (maxId != null && lastValue != null && lastValue <= maxId) {
+                // Pooled generators hand out (value - allocationSize, value], so leave a full block of room
+                jdbcTemplate.queryForObject("select setval(?::regclass, ?)", Long.class,
+                        alignment.sequence(), maxId + ALLOCATION_SIZE);
+                log.info("Moved sequence {} past existing ids (max id {})", alignment.sequence(), maxId);
+            }
+        }
+    }
+
+    private record Alignment(String sequence, String maxIdQuery, String lastValueQuery) {
+    }
+}
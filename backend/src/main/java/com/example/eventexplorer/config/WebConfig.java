@@ -1,27 +1,20 @@
 package com.example.eventexplorer.config;
 
+import com.example.eventexplorer.controller.EventController;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.nio.file.Paths;
-
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        String uploadPath = Paths.get("uploads/events").toAbsolutePath().toString();
-        registry.addResourceHandler("/api/images/**")
-                .addResourceLocations("file:" + uploadPath + "/");
-    }
-
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins("http://localhost:3000", "http://localhost:30000")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                .exposedHeaders(EventController.NEXT_CURSOR_HEADER, HttpHeaders.RETRY_AFTER)
                 .allowCredentials(true);
     }
 }
@@ -1,12 +1,21 @@
 package com.example.eventexplorer.controller;
 
+import com.example.eventexplorer.config.AuthenticatedUser;
+import com.example.eventexplorer.dto.LoginRequest;
 import com.example.eventexplorer.dto.RegisterRequest;
+import com.example.eventexplorer.metrics.QueryBudget;
 import com.example.eventexplorer.model.User;
 import com.example.eventexplorer.model.Role;
+import com.example.eventexplorer.service.CachedUser;
+import com.example.eventexplorer.service.TokenService;
 import com.example.eventexplorer.service.UserService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -18,9 +27,15 @@ import java.util.Map;
 public class AuthController {
 
     private final UserService userService;
+    private final AuthenticationManager authenticationManager;
+    private final TokenService tokenService;
 
-    public AuthController(UserService userService) {
+    public AuthController(UserService userService,
+                          AuthenticationManager authenticationManager,
+                          TokenService tokenService) {
         this.userService = userService;
+        this.authenticationManager = authenticationManager;
+        this.tokenService = tokenService;
     }
 
     @PostMapping("/register")
@@ -38,10 +53,37 @@ public class AuthController {
         }
     }
 
+    /**
+     * Verifies the password once and exchanges it for a short-lived signed token,
+     * to be sent as {@code Authorization: Bearer <token>} on later requests.
+     */
+    @PostMapping("/login")
+    public ResponseEntity<Map<String, String>> login(@Valid @RequestBody LoginRequest request) {
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                    UsernamePasswordAuthenticationToken.unauthenticated(request.getUsername(), request.getPassword()));
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            TokenService.IssuedToken token = tokenService.issue(user);
+
+            Map<String, String> response = new HashMap<>();
+            response.put("token", token.getToken());
+            response.put("tokenType", "Bearer");
+            response.put("expiresAt", token.getExpiresAt().toString());
+            response.put("username", user.getUsername());
+            response.put("role", user.getRole().name());
+            return ResponseEntity.ok(response);
+        } catch (AuthenticationException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Invalid username or password");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        }
+    }
+
     @GetMapping("/me")
+    @QueryBudget(2)
     public Map<String, String> me(Authentication authentication) {
         String username = authentication.getName();
-        User user = userService.findByUsername(username);
+        CachedUser user = userService.findByUsername(username);
 
         Map<String, String> response = new HashMap<>();
         response.put("username", user.getUsername());
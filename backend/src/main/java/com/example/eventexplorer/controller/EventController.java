@@ -1,37 +1,171 @@
 package com.example.eventexplorer.controller;
 
 import com.example.eventexplorer.dto.EventDto;
+import com.example.eventexplorer.dto.EventFilter;
+import com.example.eventexplorer.dto.EventPageDto;
 import com.example.eventexplorer.dto.EventRequest;
+import com.example.eventexplorer.metrics.QueryBudget;
+import com.example.eventexplorer.service.CatalogSnapshot;
+import com.example.eventexplorer.service.CatalogVersion;
+import com.example.eventexplorer.service.EventCursor;
 import com.example.eventexplorer.service.EventService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @RestController
 @RequestMapping("/events")
 @CrossOrigin
 public class EventController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final EventService eventService;
+    private final CatalogVersion catalogVersion;
+    private final CatalogSnapshot catalogSnapshot;
 
-    public EventController(EventService eventService) {
+    public EventController(EventService eventService,
+                           CatalogVersion catalogVersion,
+                           ObjectProvider<CatalogSnapshot> catalogSnapshot) {
         this.eventService = eventService;
+        this.catalogVersion = catalogVersion;
+        this.catalogSnapshot = catalogSnapshot.getIfAvailable();
     }
 
     @GetMapping
-    public List<EventDto> getEvents(Authentication authentication) {
+    @QueryBudget(3)
+    public ResponseEntity<?> getEvents(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication,
+            WebRequest webRequest) {
+        String username = authentication != null ? authentication.getName() : null;
+        if (username == null && catalogSnapshot != null && onlyCursor(webRequest)) {
+            CatalogSnapshot.Page page = catalogSnapshot.get(cursor);
+            if (page != null) {
+                return fromSnapshot(page, webRequest);
+            }
+        }
+        String etag = catalogVersion.catalogTag(scope(username, webRequest));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        EventCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = EventCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        }
+
+        EventPageDto page = eventService.getEventsPage(
+                new EventFilter(category, from, to, location), after, limit, username);
+        ResponseEntity.BodyBuilder response = conditional(ResponseEntity.ok(), etag, username);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    @GetMapping("/search")
+    @QueryBudget(3)
+    public ResponseEntity<List<EventDto>> searchEvents(@RequestParam("q") String query,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       Authentication authentication) {
+        String username = authentication != null ? authentication.getName() : null;
+        return ResponseEntity.ok(eventService.searchEvents(query, limit, username));
+    }
+
+    @GetMapping("/upcoming")
+    @QueryBudget(3)
+    public ResponseEntity<List<EventDto>> getUpcomingEvents(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
         String username = authentication != null ? authentication.getName() : null;
-        return eventService.getAllEventsForUser(username);
+        return ResponseEntity.ok(eventService.getUpcomingEvents(from, to, category, limit, username));
     }
 
     @GetMapping("/{id}")
-    public EventDto getEvent(@PathVariable Long id, Authentication authentication) {
+    @QueryBudget(3)
+    public ResponseEntity<EventDto> getEvent(@PathVariable Long id,
+                                             Authentication authentication,
+                                             WebRequest webRequest) {
         String username = authentication != null ? authentication.getName() : null;
-        return eventService.getEventByIdForUser(id, username);
+        String etag = catalogVersion.eventTag(id, scope(username, webRequest));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return conditional(ResponseEntity.ok(), etag, username)
+                .body(eventService.getEventByIdForUser(id, username));
+    }
+
+    private static boolean onlyCursor(WebRequest webRequest) {
+        Map<String, String[]> parameters = webRequest.getParameterMap();
+        return parameters.isEmpty() || (parameters.size() == 1
+                && parameters.containsKey("cursor") && parameters.get("cursor").length == 1);
+    }
+
+    /**
+     * A pre-rendered anonymous page, gzipped when the client accepts it.
+     */
+    private static ResponseEntity<byte[]> fromSnapshot(CatalogSnapshot.Page snapshot, WebRequest webRequest) {
+        String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = gzip ? snapshot.gzipEtag() : snapshot.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = conditional(ResponseEntity.ok(), etag, null)
+                .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (snapshot.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, snapshot.nextCursor());
+        }
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
+    }
+
+    /**
+     * The representation depends on the caller (myStatus) and on every query parameter.
+     */
+    private static String scope(String username, WebRequest webRequest) {
+        StringBuilder scope = new StringBuilder(username != null ? username : "");
+        Map<String, String[]> parameters = new TreeMap<>(webRequest.getParameterMap());
+        parameters.forEach((name, values) -> scope.append('&').append(name).append('=').append(String.join(",", values)));
+        return scope.toString();
+    }
+
+    private static ResponseEntity.BodyBuilder conditional(ResponseEntity.BodyBuilder response, String etag, String username) {
+        CacheControl cacheControl = username != null ? CacheControl.noCache().cachePrivate() : CacheControl.noCache();
+        return response.eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.AUTHORIZATION);
     }
 
     @PostMapping
@@ -1,63 +1,121 @@
 package com.example.eventexplorer.controller;
 
+import com.example.eventexplorer.service.ImageStorageService;
+import com.example.eventexplorer.service.ImageVariantService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
+/**
+ * Image uploads as the raw request body, typed with the image's own {@code Content-Type}.
+ * The body is streamed straight into storage: nothing is spooled by the container, the magic
+ * bytes are checked on the first bytes read, and a body over the size limit is cut off as
+ * soon as it passes it. Rejections close the connection rather than draining the rest.
+ */
 @RestController
 @RequestMapping("/api/upload")
 @CrossOrigin
 public class FileUploadController {
 
-    private static final String UPLOAD_DIR = "uploads/events/";
+    private final ImageStorageService imageStorageService;
+    private final ImageVariantService imageVariantService;
+    private final long maxSize;
 
-    @PostMapping("/image")
+    public FileUploadController(ImageStorageService imageStorageService,
+                                ImageVariantService imageVariantService,
+                                @Value("${app.uploads.max-size:5MB}") DataSize maxSize) {
+        this.imageStorageService = imageStorageService;
+        this.imageVariantService = imageVariantService;
+        this.maxSize = maxSize.toBytes();
+    }
+
+    @PostMapping(value = "/image", consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE,
+            MediaType.IMAGE_GIF_VALUE, "image/webp"})
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, String>> uploadImage(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, String>> uploadImage(HttpServletRequest request) {
+        if (request.getContentLengthLong() > maxSize) {
+            throw new MaxUploadSizeExceededException(maxSize);
+        }
         try {
-            if (file.isEmpty()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "File is empty");
-                return ResponseEntity.badRequest().body(error);
+            // Stored under its SHA-256, so a re-upload returns the existing URL
+            String imageUrl;
+            try (InputStream in = new LimitedInputStream(request.getInputStream(), maxSize)) {
+                imageUrl = imageStorageService.store(in);
             }
-
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename != null && originalFilename.contains(".")
-                    ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                    : "";
-            String filename = UUID.randomUUID().toString() + extension;
-
-            // Save file
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            // Return URL (relative path that frontend can use)
-            String imageUrl = "/api/images/" + filename;
+            imageVariantService.submit(imageUrl);
 
             Map<String, String> response = new HashMap<>();
             response.put("imageUrl", imageUrl);
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
         } catch (IOException e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to upload file: " + e.getMessage());
-            return ResponseEntity.internalServerError().body(error);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to upload file: " + e.getMessage());
+        }
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<Map<String, String>> handleTooLarge(MaxUploadSizeExceededException e) {
+        return error(HttpStatus.PAYLOAD_TOO_LARGE, "File is too large");
+    }
+
+    // Most rejections leave body unread; closing spares the container from swallowing it
+    private static ResponseEntity<Map<String, String>> error(HttpStatus status, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return ResponseEntity.status(status).header(HttpHeaders.CONNECTION, "close").body(error);
+    }
+
+    /**
+     * Fails with {@link MaxUploadSizeExceededException} once more than {@code limit} bytes
+     * have been read, for bodies sent without a length or longer than they said.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long read;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            read += n;
+            if (read > limit) {
+                throw new MaxUploadSizeExceededException(limit);
+            }
         }
     }
 }
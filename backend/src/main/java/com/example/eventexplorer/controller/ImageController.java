@@ -0,0 +1,80 @@
+package com.example.eventexplorer.controller;
+
+import com.example.eventexplorer.service.ImageCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.time.Duration;
+
+/**
+ * Serves uploaded images and their variants: small hot files from {@link ImageCache}, larger
+ * ones with Tomcat's sendfile so the bytes go from the page cache to the socket without being
+ * copied through the JVM.
+ */
+@RestController
+@RequestMapping("/api/images")
+@CrossOrigin
+public class ImageController {
+
+    // Tomcat's sendfile request attributes, as used by its DefaultServlet
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // File names are content hashes, so a URL never changes what it serves
+    private static final String CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic().immutable().getHeaderValue();
+
+    private final ImageCache imageCache;
+
+    public ImageController(ImageCache imageCache) {
+        this.imageCache = imageCache;
+    }
+
+    @GetMapping("/{*path}")
+    public void getImage(@PathVariable String path,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        ImageCache.ImageFile image = imageCache.lookup(path.substring(1));
+        if (image == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        if (new ServletWebRequest(request, response).checkNotModified(image.etag(), image.lastModified())) {
+            return;
+        }
+        response.setContentType(image.contentType().toString());
+        response.setContentLengthLong(image.size());
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (image.body() != null) {
+            response.getOutputStream().write(image.body());
+        } else if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file after this method returns
+            request.setAttribute(SENDFILE_FILENAME, image.path().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, image.size());
+        } else {
+            try (OutputStream out = response.getOutputStream()) {
+                Files.copy(image.path(), out);
+            }
+        }
+        imageCache.recordServed(image);
+    }
+}
@@ -1,48 +1,129 @@
 package com.example.eventexplorer.controller;
 
+import com.example.eventexplorer.config.AuthenticatedUser;
+import com.example.eventexplorer.dto.ParticipationBatchRequest;
+import com.example.eventexplorer.dto.ParticipationChangeRequest;
 import com.example.eventexplorer.dto.ParticipationCountsDto;
 import com.example.eventexplorer.dto.ParticipationRequest;
+import com.example.eventexplorer.metrics.QueryBudget;
+import com.example.eventexplorer.model.ParticipationStatus;
 import com.example.eventexplorer.service.ParticipationService;
+import com.example.eventexplorer.service.ParticipationWriteBehind;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @RestController
-@RequestMapping("/events/{id}/participation")
+@RequestMapping("/events")
 @CrossOrigin
 public class ParticipationController {
 
     private final ParticipationService participationService;
+    private final ObjectProvider<ParticipationWriteBehind> writeBehind;
 
-    public ParticipationController(ParticipationService participationService) {
+    public ParticipationController(ParticipationService participationService,
+                                   ObjectProvider<ParticipationWriteBehind> writeBehind) {
         this.participationService = participationService;
+        this.writeBehind = writeBehind;
     }
 
-    @PostMapping
+    // Write budgets include the update of the event's count columns in the same transaction
+    @PostMapping("/{id}/participation")
+    @QueryBudget(4)
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
     public ResponseEntity<Void> markParticipation(@PathVariable("id") Long eventId,
                                                   @Valid @RequestBody ParticipationRequest request,
                                                   Authentication authentication) {
-        String username = authentication.getName();
-        participationService.markParticipation(eventId, username, request);
+        Long userId = ((AuthenticatedUser) authentication.getPrincipal()).getId();
+        ParticipationWriteBehind queue = writeBehind.getIfAvailable();
+        if (queue != null) {
+            return enqueue(() -> queue.submit(userId, eventId, request.getStatus()));
+        }
+        try {
+            participationService.markParticipation(eventId, userId, request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/participation/batch")
+    @QueryBudget(7)
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<Void> applyParticipations(@Valid @RequestBody ParticipationBatchRequest request,
+                                                    Authentication authentication) {
+        ParticipationWriteBehind queue = writeBehind.getIfAvailable();
+        if (queue != null) {
+            // Queued like single changes, so older queued ones cannot overwrite the batch
+            Map<Long, ParticipationStatus> changes = new LinkedHashMap<>();
+            for (ParticipationChangeRequest change : request.getChanges()) {
+                changes.put(change.getEventId(), change.getStatus());
+            }
+            Long userId = ((AuthenticatedUser) authentication.getPrincipal()).getId();
+            return enqueue(() -> queue.submitAll(userId, changes));
+        }
+        try {
+            participationService.applyParticipations(authentication.getName(), request.getChanges());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
         return ResponseEntity.ok().build();
     }
 
-    @GetMapping
+    /**
+     * The caller's statuses as {@code {eventId: status}}, for clients that combine them with
+     * the shared anonymous catalog.
+     */
+    @GetMapping("/participation/mine")
+    @QueryBudget(1)
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<Map<Long, ParticipationStatus>> getMyStatuses(Authentication authentication) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(participationService.getMyStatuses(authentication.getName()));
+    }
+
+    @GetMapping("/{id}/participation")
+    @QueryBudget(1)
     public ResponseEntity<ParticipationCountsDto> getParticipationCounts(@PathVariable("id") Long eventId) {
         return ResponseEntity.ok(participationService.getParticipationCounts(eventId));
     }
 
-    @DeleteMapping
+    @DeleteMapping("/{id}/participation")
+    @QueryBudget(3)
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     public ResponseEntity<Void> removeParticipation(@PathVariable("id") Long eventId,
                                                     Authentication authentication) {
-        String username = authentication.getName();
-        participationService.removeParticipation(eventId, username);
+        Long userId = ((AuthenticatedUser) authentication.getPrincipal()).getId();
+        ParticipationWriteBehind queue = writeBehind.getIfAvailable();
+        if (queue != null) {
+            return enqueue(() -> queue.submit(userId, eventId, null));
+        }
+        participationService.removeParticipation(eventId, userId);
         return ResponseEntity.ok().build();
     }
 
-}
+    /**
+     * Write-behind mode: the change is queued and written shortly after, hence 202.
+     */
+    private static ResponseEntity<Void> enqueue(Runnable submit) {
+        try {
+            submit.run();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+        return ResponseEntity.accepted().build();
+    }
 
+}
@@ -0,0 +1,37 @@
+package com.example.eventexplorer.controller;
+
+import com.example.eventexplorer.service.ParticipationBroadcaster;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/events/participation/stream")
+@CrossOrigin
+public class ParticipationStreamController {
+
+    private final ParticipationBroadcaster broadcaster;
+
+    public ParticipationStreamController(ParticipationBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void stream(@RequestParam("ids") List<Long> eventIds,
+                       HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        try {
+            broadcaster.subscribe(eventIds, request, response);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.eventexplorer.controller;
+
+import com.example.eventexplorer.dto.RoleChangeRequest;
+import com.example.eventexplorer.service.CachedUser;
+import com.example.eventexplorer.service.UserService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/users")
+@CrossOrigin
+public class UserController {
+
+    private final UserService userService;
+
+    public UserController(UserService userService) {
+        this.userService = userService;
+    }
+
+    @PutMapping("/{username}/role")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, String>> changeRole(@PathVariable String username,
+                                                          @Valid @RequestBody RoleChangeRequest request) {
+        try {
+            CachedUser user = userService.changeRole(username, request.getRole());
+            Map<String, String> response = new HashMap<>();
+            response.put("username", user.getUsername());
+            response.put("role", user.getRole().name());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.eventexplorer.dto;
 import com.example.eventexplorer.model.ParticipationStatus;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class EventDto {
 
@@ -13,6 +14,7 @@ public class EventDto {
     private String location;
     private String category;
     private String imageUrl;
+    private List<ImageVariantDto> imageVariants;
     private long interestedCount;
     private long goingCount;
     private ParticipationStatus myStatus;
@@ -89,6 +91,14 @@ public class EventDto {
         this.imageUrl = imageUrl;
     }
 
+    public List<ImageVariantDto> getImageVariants() {
+        return imageVariants;
+    }
+
+    public void setImageVariants(List<ImageVariantDto> imageVariants) {
+        this.imageVariants = imageVariants;
+    }
+
     public ParticipationStatus getMyStatus() {
         return myStatus;
     }
@@ -0,0 +1,53 @@
+package com.example.eventexplorer.dto;
+
+import java.time.LocalDateTime;
+
+public class EventFilter {
+
+    private String category;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String location;
+
+    public EventFilter() {
+    }
+
+    public EventFilter(String category, LocalDateTime from, LocalDateTime to, String location) {
+        this.category = category;
+        this.from = from;
+        this.to = to;
+        this.location = location;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+}
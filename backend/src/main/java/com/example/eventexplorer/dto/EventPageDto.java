@@ -0,0 +1,22 @@
+package com.example.eventexplorer.dto;
+
+import java.util.List;
+
+public class EventPageDto {
+
+    private final List<EventDto> items;
+    private final String nextCursor;
+
+    public EventPageDto(List<EventDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<EventDto> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.eventexplorer.dto;
+
+public class ImageVariantDto {
+
+    private final int width;
+    private final String url;
+
+    public ImageVariantDto(int width, String url) {
+        this.width = width;
+        this.url = url;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+}
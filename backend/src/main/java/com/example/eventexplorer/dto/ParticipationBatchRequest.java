@@ -0,0 +1,22 @@
+package com.example.eventexplorer.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class ParticipationBatchRequest {
+
+    @NotEmpty
+    @Size(max = 200)
+    private List<@Valid ParticipationChangeRequest> changes;
+
+    public List<ParticipationChangeRequest> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<ParticipationChangeRequest> changes) {
+        this.changes = changes;
+    }
+}
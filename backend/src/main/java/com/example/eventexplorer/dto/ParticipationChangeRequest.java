@@ -0,0 +1,29 @@
+package com.example.eventexplorer.dto;
+
+import com.example.eventexplorer.model.ParticipationStatus;
+import jakarta.validation.constraints.NotNull;
+
+public class ParticipationChangeRequest {
+
+    @NotNull
+    private Long eventId;
+
+    // null removes the participation
+    private ParticipationStatus status;
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public ParticipationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ParticipationStatus status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.eventexplorer.dto;
+
+public class ParticipationUpdateDto {
+
+    private final Long eventId;
+    private final long interestedCount;
+    private final long goingCount;
+
+    public ParticipationUpdateDto(Long eventId, ParticipationCountsDto counts) {
+        this.eventId = eventId;
+        this.interestedCount = counts.getInterestedCount();
+        this.goingCount = counts.getGoingCount();
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public long getInterestedCount() {
+        return interestedCount;
+    }
+
+    public long getGoingCount() {
+        return goingCount;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.eventexplorer.dto;
+
+import com.example.eventexplorer.model.Role;
+import jakarta.validation.constraints.NotNull;
+
+public class RoleChangeRequest {
+
+    @NotNull
+    private Role role;
+
+    public Role getRole() {
+        return role;
+    }
+
+    public void setRole(Role role) {
+        this.role = role;
+    }
+}
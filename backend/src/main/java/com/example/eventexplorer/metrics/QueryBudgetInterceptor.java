@@ -0,0 +1,65 @@
+package com.example.eventexplorer.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Checks requests against their handler's {@link QueryBudget}. The response has been written
+ * by then, so a violation is logged, counted as {@code http.server.requests.query.budget.exceeded}
+ * and kept among the last {@value #MAX_REMEMBERED} in {@link #getViolations()}.
+ */
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetInterceptor.class);
+    private static final int MAX_REMEMBERED = 100;
+
+    private final MeterRegistry meterRegistry;
+    private final Deque<Violation> violations = new ConcurrentLinkedDeque<>();
+
+    public QueryBudgetInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(handler instanceof HandlerMethod method)
+                || !(request.getAttribute(QueryMetricsFilter.SCOPE_ATTRIBUTE) instanceof QueryCounter.Scope scope)) {
+            return;
+        }
+        QueryBudget budget = method.getMethodAnnotation(QueryBudget.class);
+        if (budget == null || scope.getStatements() <= budget.value()) {
+            return;
+        }
+        String name = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        Counter.builder("http.server.requests.query.budget.exceeded")
+                .tag("handler", name)
+                .register(meterRegistry)
+                .increment();
+        log.warn("{} executed {} SQL statements, over its budget of {}", name, scope.getStatements(), budget.value());
+        violations.addLast(new Violation(name, request.getRequestURI(), budget.value(), scope.getStatements()));
+        while (violations.size() > MAX_REMEMBERED) {
+            violations.pollFirst();
+        }
+    }
+
+    /**
+     * The most recent violations, oldest first; a copy that later requests do not change.
+     */
+    public List<Violation> getViolations() {
+        return List.copyOf(violations);
+    }
+
+    public record Violation(String handler, String uri, int budget, long statements) {
+    }
+}
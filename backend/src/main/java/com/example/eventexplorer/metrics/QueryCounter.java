@@ -0,0 +1,96 @@
+package com.example.eventexplorer.metrics;
+
+import java.util.function.Supplier;
+
+/**
+ * Thread-bound counting of SQL statements. Scopes nest: a statement counts towards every
+ * scope open on the executing thread, so a request sees the statements of all the
+ * transactions it ran.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Opens a scope on the current thread; close it in the same thread, innermost first.
+     */
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Runs {@code action} in its own scope and returns what it executed, for assertions such as
+     * {@code QueryCounter.measure(() -> service.call()).assertAtMost(2)}.
+     */
+    public static Scope measure(Runnable action) {
+        try (Scope scope = open()) {
+            action.run();
+            return scope;
+        }
+    }
+
+    /**
+     * Like {@link #measure(Runnable)}, also handing back the action's result.
+     */
+    public static <T> Measured<T> measure(Supplier<T> action) {
+        try (Scope scope = open()) {
+            return new Measured<>(action.get(), scope);
+        }
+    }
+
+    static void record(long nanos) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.statements++;
+            scope.nanos += nanos;
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private long statements;
+        private long nanos;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @throws AssertionError when more than {@code budget} statements were executed
+         */
+        public Scope assertAtMost(long budget) {
+            if (statements > budget) {
+                throw new AssertionError("Expected at most " + budget + " SQL statements but "
+                        + statements + " were executed");
+            }
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                if (parent == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(parent);
+                }
+            }
+        }
+    }
+
+    public record Measured<T>(T result, Scope queries) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.eventexplorer.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Statement counting for the application data source, per request and per transactional
+ * service call, plus {@link QueryBudget} checks. On unless {@code app.metrics.queries.enabled=false}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.metrics.queries.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryMetricsConfig {
+
+    // Unordered, so it wraps whatever the ordered post-processors (e.g. the connection limit) produced
+    @Bean
+    public static BeanPostProcessor queryCountingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryMetricsFilter> queryMetricsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.metrics.queries.warn-threshold:25}") int warnThreshold) {
+        FilterRegistrationBean<QueryMetricsFilter> registration =
+                new FilterRegistrationBean<>(new QueryMetricsFilter(meterRegistry, warnThreshold));
+        // Outside Spring Security so that user lookups during authentication are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    public QueryBudgetInterceptor queryBudgetInterceptor(MeterRegistry meterRegistry) {
+        return new QueryBudgetInterceptor(meterRegistry);
+    }
+
+    @Bean
+    public WebMvcConfigurer queryBudgetWebMvcConfigurer(QueryBudgetInterceptor queryBudgetInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(queryBudgetInterceptor);
+            }
+        };
+    }
+
+    @Bean
+    public TransactionalQueryMetricsAspect transactionalQueryMetricsAspect(MeterRegistry meterRegistry) {
+        return new TransactionalQueryMetricsAspect(meterRegistry);
+    }
+}
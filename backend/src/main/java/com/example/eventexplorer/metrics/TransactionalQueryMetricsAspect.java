@@ -0,0 +1,67 @@
+package com.example.eventexplorer.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the SQL statements and database time of each {@code @Transactional} service method,
+ * published as {@code db.transaction.queries} and {@code db.transaction.query.time}. It wraps
+ * the transaction advice, so statements flushed at commit are included.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TransactionalQueryMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+    public TransactionalQueryMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.example.eventexplorer.service..*(..)) && " +
+            "(@within(org.springframework.transaction.annotation.Transactional) || " +
+            "@annotation(org.springframework.transaction.annotation.Transactional))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            try {
+                return joinPoint.proceed();
+            } finally {
+                Meters target = meters.computeIfAbsent(
+                        ((MethodSignature) joinPoint.getSignature()).getMethod(), this::register);
+                target.statements.record(scope.getStatements());
+                target.time.record(scope.getNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Meters register(Method method) {
+        String className = method.getDeclaringClass().getSimpleName();
+        return new Meters(
+                DistributionSummary.builder("db.transaction.queries")
+                        .description("SQL statements executed per transactional service call")
+                        .tag("class", className)
+                        .tag("method", method.getName())
+                        .register(meterRegistry),
+                Timer.builder("db.transaction.query.time")
+                        .description("Time spent executing SQL per transactional service call")
+                        .tag("class", className)
+                        .tag("method", method.getName())
+                        .register(meterRegistry));
+    }
+
+    private record Meters(DistributionSummary statements, Timer time) {
+    }
+}
@@ -5,11 +5,16 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+        @Index(name = "idx_events_date_id", columnList = "date, id"),
+        @Index(name = "idx_events_category_date_id", columnList = "category, date, id"),
+        @Index(name = "idx_events_location_date_id", columnList = "location, date, id")
+})
 public class Event {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_seq")
+    @SequenceGenerator(name = "event_seq", sequenceName = "events_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -30,6 +35,13 @@ public class Event {
     @Column(length = 500)
     private String imageUrl; // URL or path to event image
 
+    // Denormalized participation counters, only ever changed through EventRepository's atomic updates
+    @Column(name = "interested_count", nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long interestedCount;
+
+    @Column(name = "going_count", nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long goingCount;
+
     public Long getId() {
         return id;
     }
@@ -85,5 +97,20 @@ public class Event {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
-}
 
+    public long getInterestedCount() {
+        return interestedCount;
+    }
+
+    public void setInterestedCount(long interestedCount) {
+        this.interestedCount = interestedCount;
+    }
+
+    public long getGoingCount() {
+        return goingCount;
+    }
+
+    public void setGoingCount(long goingCount) {
+        this.goingCount = goingCount;
+    }
+}
@@ -5,12 +5,14 @@ import jakarta.persistence.*;
 @Entity
 @Table(
         name = "event_participation",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "event_id"})
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "event_id"}),
+        indexes = @Index(name = "idx_event_participation_event_status", columnList = "event_id, status")
 )
 public class EventParticipation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_participation_seq")
+    @SequenceGenerator(name = "event_participation_seq", sequenceName = "event_participation_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
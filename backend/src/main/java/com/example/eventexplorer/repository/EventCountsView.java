@@ -0,0 +1,10 @@
+package com.example.eventexplorer.repository;
+
+public interface EventCountsView {
+
+    Long getId();
+
+    long getInterestedCount();
+
+    long getGoingCount();
+}
@@ -4,8 +4,13 @@ import com.example.eventexplorer.model.Event;
 import com.example.eventexplorer.model.EventParticipation;
 import com.example.eventexplorer.model.ParticipationStatus;
 import com.example.eventexplorer.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +20,57 @@ public interface EventParticipationRepository extends JpaRepository<EventPartici
 
     Optional<EventParticipation> findByEventAndUser(Event event, User user);
 
+    /**
+     * Sets a status in one round trip and reports the status it replaced. The existing row is
+     * locked first, so concurrent changes by the same user see each other's previous status.
+     * {@code written} is false only when another transaction inserted the row after the lock was
+     * looked for; running the statement again then finds and locks it. A missing event fails the
+     * foreign key (SQLState 23503).
+     *
+     * <p>{@code id} is only used when a row is inserted. It must come from the entity's own id
+     * generator, so rows written here and rows saved through Hibernate share one id source.
+     */
+    @Query(nativeQuery = true, value = """
+            with previous as (
+                select id, status from event_participation
+                where user_id = :userId and event_id = :eventId
+                for update
+            ), updated as (
+                update event_participation p set status = :status
+                from previous where p.id = previous.id
+                returning p.id
+            ), inserted as (
+                insert into event_participation (id, user_id, event_id, status)
+                select :id, :userId, :eventId, :status
+                where not exists (select 1 from previous)
+                on conflict (user_id, event_id) do nothing
+                returning id
+            )
+            select (select status from previous) as previous,
+                   exists (select 1 from updated) or exists (select 1 from inserted) as written
+            """)
+    ParticipationUpsertView upsert(@Param("id") Long id,
+                                   @Param("userId") Long userId,
+                                   @Param("eventId") Long eventId,
+                                   @Param("status") String status);
+
+    /**
+     * Deletes in one round trip; the removed row's status, or none when there was no row.
+     */
+    @Query(nativeQuery = true, value = "delete from event_participation " +
+            "where user_id = :userId and event_id = :eventId returning status")
+    List<String> deleteReturningStatus(@Param("userId") Long userId, @Param("eventId") Long eventId);
+
+    // Locks are taken in event id order so overlapping batches cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from EventParticipation p where p.user = :user and p.event.id in :eventIds " +
+            "order by p.event.id")
+    List<EventParticipation> findForUpdateByUserAndEventIds(@Param("user") User user,
+                                                            @Param("eventIds") Collection<Long> eventIds);
+
     List<EventParticipation> findByEvent(Event event);
-}
 
+    @Query("select p.event.id as eventId, p.status as status from EventParticipation p " +
+            "where p.user.id = :userId")
+    List<EventStatusView> findStatusesByUserId(@Param("userId") Long userId);
+}
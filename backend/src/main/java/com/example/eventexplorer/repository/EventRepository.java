@@ -1,8 +1,99 @@
 package com.example.eventexplorer.repository;
 
 import com.example.eventexplorer.model.Event;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface EventRepository extends JpaRepository<Event, Long> {
-}
 
+    /**
+     * First keyset page of the catalog in {@code (date, id)} order. Every filter is optional.
+     */
+    @Query("select e from Event e " +
+            "where (:category is null or e.category = :category) " +
+            "and (:location is null or e.location = :location) " +
+            "and (cast(:from as LocalDateTime) is null or e.date >= :from) " +
+            "and (cast(:to as LocalDateTime) is null or e.date < :to) " +
+            "order by e.date, e.id")
+    List<Event> findPage(@Param("category") String category,
+                         @Param("location") String location,
+                         @Param("from") LocalDateTime from,
+                         @Param("to") LocalDateTime to,
+                         Limit limit);
+
+    /**
+     * Keyset page following {@code (afterDate, afterId)}. The row-value comparison is an index
+     * condition on idx_events_date_id, so a page costs the same at any depth.
+     */
+    @Query("select e from Event e " +
+            "where (e.date, e.id) > (:afterDate, :afterId) " +
+            "and (:category is null or e.category = :category) " +
+            "and (:location is null or e.location = :location) " +
+            "and (cast(:from as LocalDateTime) is null or e.date >= :from) " +
+            "and (cast(:to as LocalDateTime) is null or e.date < :to) " +
+            "order by e.date, e.id")
+    List<Event> findPageAfter(@Param("category") String category,
+                              @Param("location") String location,
+                              @Param("from") LocalDateTime from,
+                              @Param("to") LocalDateTime to,
+                              @Param("afterDate") LocalDateTime afterDate,
+                              @Param("afterId") Long afterId,
+                              Limit limit);
+
+    /**
+     * Ids of events whose title, description, location or category contain every one of the
+     * space-separated, lower-case {@code terms}, in id order. Unranked and a full scan; it only
+     * answers searches until the search index has been built.
+     */
+    @Query(nativeQuery = true, value = """
+            select e.id from events e
+            where not exists (
+                select 1 from unnest(string_to_array(:terms, ' ')) as t(term)
+                where strpos(lower(concat_ws(' ', e.title, e.description, e.location, e.category)), t.term) = 0)
+            order by e.id
+            limit :limit
+            """)
+    List<Long> searchIds(@Param("terms") String terms, @Param("limit") int limit);
+
+    // Served by idx_events_date_id; only the columns the upcoming index keeps
+    @Query("select e.id as id, e.date as date, e.category as category from Event e " +
+            "where e.date >= :from order by e.date, e.id")
+    List<UpcomingEventView> findUpcoming(@Param("from") LocalDateTime from);
+
+    @Query("select e.id as id, e.interestedCount as interestedCount, e.goingCount as goingCount " +
+            "from Event e where e.id in :ids")
+    List<EventCountsView> findCountsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Event e set e.interestedCount = e.interestedCount + :interested, " +
+            "e.goingCount = e.goingCount + :going where e.id = :id")
+    int adjustParticipationCounts(@Param("id") Long id,
+                                  @Param("interested") long interested,
+                                  @Param("going") long going);
+
+    /**
+     * Recomputes the denormalized counters from event_participation in one grouped pass and
+     * writes only the events that drifted, including events whose last participation is gone.
+     * Returns the rewritten counters.
+     */
+    @Query(nativeQuery = true, value = """
+            update events e set interested_count = c.interested, going_count = c.going
+            from (select ev.id, coalesce(p.interested, 0) as interested, coalesce(p.going, 0) as going
+                  from events ev left join (
+                      select event_id,
+                             count(*) filter (where status = 'INTERESTED') as interested,
+                             count(*) filter (where status = 'GOING') as going
+                      from event_participation group by event_id) p on p.event_id = ev.id) c
+            where e.id = c.id
+            and (e.interested_count, e.going_count) is distinct from (c.interested, c.going)
+            returning e.id as "id", e.interested_count as "interestedCount", e.going_count as "goingCount"
+            """)
+    List<EventCountsView> reconcileParticipationCounts();
+}
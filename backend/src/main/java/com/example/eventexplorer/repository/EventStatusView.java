@@ -0,0 +1,10 @@
+package com.example.eventexplorer.repository;
+
+import com.example.eventexplorer.model.ParticipationStatus;
+
+public interface EventStatusView {
+
+    Long getEventId();
+
+    ParticipationStatus getStatus();
+}
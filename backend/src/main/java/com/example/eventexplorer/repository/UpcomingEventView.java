@@ -0,0 +1,12 @@
+package com.example.eventexplorer.repository;
+
+import java.time.LocalDateTime;
+
+public interface UpcomingEventView {
+
+    Long getId();
+
+    LocalDateTime getDate();
+
+    String getCategory();
+}
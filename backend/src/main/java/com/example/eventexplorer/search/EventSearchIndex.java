@@ -0,0 +1,455 @@
+package com.example.eventexplorer.search;
+
+import com.example.eventexplorer.model.Event;
+import com.example.eventexplorer.repository.EventRepository;
+import com.example.eventexplorer.service.EventChange;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over event title, description, location and category.
+ *
+ * <p>Every query term must match (AND). The last term also matches as a prefix, so results
+ * follow the user while they type. Hits are ranked by field weight, term frequency and inverse
+ * document frequency; candidates that cannot beat the current top {@code limit} even with
+ * every remaining term at its best weight are skipped, and the walk stops once none can.
+ *
+ * <p>The index is built when the application is ready and kept current from committed
+ * {@link EventChange}s. Until the first build completes, searches are answered by an unranked
+ * substring query on the database instead. It holds only ids and term weights; callers load
+ * the events.
+ */
+@Component
+public class EventSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(EventSearchIndex.class);
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float LOCATION_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    // Bounds the work of very short prefixes such as "a" on a large catalog; the most frequent expansions are kept
+    private static final int MAX_PREFIX_TERMS = 128;
+    private static final int MAX_QUERY_TERMS = 8;
+
+    // Worst hit first, so the queue head is the one to evict; ties favour the earlier document,
+    // which is the lower id for events not edited since the index was built
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score)
+            .thenComparing(Comparator.comparingInt(Hit::doc).reversed());
+
+    private final EventRepository eventRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Timer searchTimer;
+
+    // Guarded by lock
+    private Postings postings = new Postings();
+    // Guarded by lock; non-null while a rebuild is reading the catalog
+    private List<EventChange> changesDuringRebuild;
+    // Set once the first rebuild has completed; searches go to the database until then
+    private volatile boolean built;
+
+    public EventSearchIndex(EventRepository eventRepository, MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.searchTimer = Timer.builder("events.search")
+                .description("Time spent answering a search from the index")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("events.search.documents", this, EventSearchIndex::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Postings fresh = new Postings();
+        try {
+            // In id order, so that document order breaks ties by id
+            for (Event event : eventRepository.findAll(Sort.by("id"))) {
+                fresh.add(event);
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                // Changes committed while reading may be missing from the snapshot; replaying is idempotent
+                changesDuringRebuild.forEach(fresh::apply);
+                changesDuringRebuild = null;
+                postings = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        built = true;
+        log.info("Search index built with {} events and {} terms", fresh.documents.size(), fresh.terms.size());
+    }
+
+    @TransactionalEventListener
+    public void onEventChange(EventChange change) {
+        lock.writeLock().lock();
+        try {
+            postings.apply(change);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the best matching events, best first.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(EventTokenizer.tokenizeQuery(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+        if (!built) {
+            // Terms are accent-folded and the columns are not, so accented words miss until then
+            return eventRepository.searchIds(String.join(" ", terms), limit);
+        }
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            List<Long> hits = postings.search(terms, limit);
+            String last = terms.get(terms.size() - 1);
+            if (hits.isEmpty() && terms.size() > 1 && EventTokenizer.isStopWord(last)) {
+                // The unfinished stop word starts nothing that goes with the rest, so it was meant as a word
+                hits = postings.search(terms.subList(0, terms.size() - 1), limit);
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+            searchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return postings.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean ranksAbove(float score, int doc, Hit worst) {
+        return score > worst.score() || (score == worst.score() && doc < worst.doc());
+    }
+
+    /**
+     * Postings keyed by a dense document number that grows with every (re)indexed event, so
+     * each term's list stays sorted by appending. Replaced and deleted documents are tombstoned
+     * and compacted away once they make up a quarter of the numbers handed out.
+     */
+    private static final class Postings {
+
+        final NavigableMap<String, TermPostings> terms = new TreeMap<>();
+        // event id -> its document number and terms, so updates and deletes can find the old postings
+        final Map<Long, Document> documents = new HashMap<>();
+        final BitSet dead = new BitSet();
+        long[] eventIds = new long[1024];
+        int nextDoc;
+        int deadDocs;
+
+        void apply(EventChange change) {
+            if (change.getType() == EventChange.Type.DELETED) {
+                remove(change.getEventId());
+            } else {
+                add(change.getEvent());
+            }
+        }
+
+        void add(Event event) {
+            remove(event.getId());
+            Map<String, Float> weights = new HashMap<>();
+            addField(weights, event.getTitle(), TITLE_WEIGHT);
+            addField(weights, event.getCategory(), CATEGORY_WEIGHT);
+            addField(weights, event.getLocation(), LOCATION_WEIGHT);
+            addField(weights, event.getDescription(), DESCRIPTION_WEIGHT);
+            index(event.getId(), weights);
+        }
+
+        void remove(Long eventId) {
+            Document document = documents.remove(eventId);
+            if (document == null) {
+                return;
+            }
+            dead.set(document.number());
+            deadDocs++;
+            for (String term : document.weights().keySet()) {
+                TermPostings postings = terms.get(term);
+                if (--postings.live == 0) {
+                    terms.remove(term);
+                }
+            }
+            if (deadDocs > 1024 && deadDocs > nextDoc / 4) {
+                compact();
+            }
+        }
+
+        private void index(Long eventId, Map<String, Float> weights) {
+            int number = nextDoc++;
+            if (number == eventIds.length) {
+                eventIds = Arrays.copyOf(eventIds, number * 2);
+            }
+            eventIds[number] = eventId;
+            documents.put(eventId, new Document(number, weights));
+            weights.forEach((term, weight) ->
+                    terms.computeIfAbsent(term, t -> new TermPostings()).append(number, weight));
+        }
+
+        private void compact() {
+            List<Map.Entry<Long, Document>> live = new ArrayList<>(documents.entrySet());
+            live.sort(Comparator.comparingInt(entry -> entry.getValue().number()));
+            terms.clear();
+            documents.clear();
+            dead.clear();
+            nextDoc = 0;
+            deadDocs = 0;
+            for (Map.Entry<Long, Document> entry : live) {
+                index(entry.getKey(), entry.getValue().weights());
+            }
+        }
+
+        List<Long> search(List<String> queryTerms, int limit) {
+            Match[] matches = new Match[queryTerms.size()];
+            for (int i = 0; i < matches.length; i++) {
+                matches[i] = match(queryTerms.get(i), i == matches.length - 1);
+                if (matches[i].size == 0) {
+                    return List.of();
+                }
+            }
+            // Walk the rarest term and advance through the others in document order
+            Arrays.sort(matches, Comparator.comparingInt(Match::size));
+            Match rarest = matches[0];
+            int[] cursors = new int[matches.length];
+            // remaining[m]: the most that matches m.. can still add to a candidate's score
+            float[] remaining = new float[matches.length + 1];
+            for (int m = matches.length - 1; m >= 0; m--) {
+                remaining[m] = remaining[m + 1] + matches[m].maxWeight * matches[m].factor;
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANKING);
+            candidates:
+            for (int i = 0; i < rarest.size; i++) {
+                // Documents come in increasing order, so a later one cannot win a tie
+                if (top.size() == limit && top.peek().score() >= remaining[0]) {
+                    break;
+                }
+                int doc = rarest.docs[i];
+                if (dead.get(doc)) {
+                    continue;
+                }
+                float score = rarest.weights[i] * rarest.factor;
+                for (int m = 1; m < matches.length; m++) {
+                    if (top.size() == limit && score + remaining[m] <= top.peek().score()) {
+                        continue candidates;
+                    }
+                    Match other = matches[m];
+                    int cursor = other.advance(cursors[m], doc);
+                    cursors[m] = cursor;
+                    if (cursor == other.size) {
+                        break candidates;
+                    }
+                    if (other.docs[cursor] != doc) {
+                        continue candidates;
+                    }
+                    score += other.weights[cursor] * other.factor;
+                }
+                if (top.size() < limit) {
+                    top.add(new Hit(eventIds[doc], doc, score));
+                } else if (ranksAbove(score, doc, top.peek())) {
+                    top.poll();
+                    top.add(new Hit(eventIds[doc], doc, score));
+                }
+            }
+
+            Long[] ids = new Long[top.size()];
+            for (int i = ids.length - 1; i >= 0; i--) {
+                ids[i] = top.poll().eventId();
+            }
+            return List.of(ids);
+        }
+
+        /**
+         * Documents matching one query term. A prefix match scores by how much of the
+         * indexed term the query covers; a document matching several expansions keeps the best.
+         */
+        private Match match(String term, boolean prefix) {
+            if (!prefix) {
+                TermPostings postings = terms.get(term);
+                return postings == null ? Match.NONE : postings.match(idf(postings));
+            }
+            NavigableMap<String, TermPostings> expansions =
+                    terms.subMap(term, true, term + Character.MAX_VALUE, false);
+            if (expansions.isEmpty()) {
+                return Match.NONE;
+            }
+            if (expansions.size() == 1) {
+                Map.Entry<String, TermPostings> only = expansions.firstEntry();
+                return only.getValue().match(idf(only.getValue()) * term.length() / only.getKey().length());
+            }
+
+            Collection<Map.Entry<String, TermPostings>> used = expansions.size() <= MAX_PREFIX_TERMS
+                    ? expansions.entrySet()
+                    : mostFrequent(expansions);
+            // Pack (doc, score) so one sort groups by document; positive float bits sort like the floats
+            int total = 0;
+            for (Map.Entry<String, TermPostings> entry : used) {
+                total += entry.getValue().size;
+            }
+            long[] packed = new long[total];
+            int n = 0;
+            float maxWeight = 0f;
+            for (Map.Entry<String, TermPostings> entry : used) {
+                TermPostings postings = entry.getValue();
+                float factor = idf(postings) * term.length() / entry.getKey().length();
+                maxWeight = Math.max(maxWeight, postings.maxWeight * factor);
+                for (int i = 0; i < postings.size; i++) {
+                    packed[n++] = ((long) postings.docs[i] << 32)
+                            | Float.floatToIntBits(postings.weights[i] * factor);
+                }
+            }
+            Arrays.sort(packed);
+            int[] docs = new int[n];
+            float[] weights = new float[n];
+            int size = 0;
+            for (int i = 0; i < n; i++) {
+                int doc = (int) (packed[i] >>> 32);
+                float weight = Float.intBitsToFloat((int) packed[i]);
+                if (size > 0 && docs[size - 1] == doc) {
+                    weights[size - 1] = weight;
+                } else {
+                    docs[size] = doc;
+                    weights[size++] = weight;
+                }
+            }
+            return new Match(docs, weights, size, 1f, maxWeight);
+        }
+
+        // The expansions found in the most documents, which a user typing the prefix most likely wants
+        private static Collection<Map.Entry<String, TermPostings>> mostFrequent(
+                NavigableMap<String, TermPostings> expansions) {
+            PriorityQueue<Map.Entry<String, TermPostings>> kept = new PriorityQueue<>(MAX_PREFIX_TERMS + 1,
+                    Comparator.comparingInt(entry -> entry.getValue().live));
+            for (Map.Entry<String, TermPostings> entry : expansions.entrySet()) {
+                kept.add(entry);
+                if (kept.size() > MAX_PREFIX_TERMS) {
+                    kept.poll();
+                }
+            }
+            return kept;
+        }
+
+        private float idf(TermPostings postings) {
+            return (float) Math.log(1 + (double) documents.size() / postings.live);
+        }
+
+        private static void addField(Map<String, Float> weights, String text, float weight) {
+            for (String term : EventTokenizer.tokenize(text)) {
+                weights.merge(term, weight, Float::sum);
+            }
+        }
+    }
+
+    private record Document(int number, Map<String, Float> weights) {
+    }
+
+    private record Hit(long eventId, int doc, float score) {
+    }
+
+    /**
+     * Append-only postings for one term, sorted by document number. Entries of dead
+     * documents stay until the next compaction; {@code live} counts the others.
+     */
+    private static final class TermPostings {
+        int[] docs = new int[4];
+        float[] weights = new float[4];
+        int size;
+        int live;
+        // Never lowered when documents die, so it stays an upper bound
+        float maxWeight;
+
+        void append(int doc, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size++] = weight;
+            live++;
+            maxWeight = Math.max(maxWeight, weight);
+        }
+
+        Match match(float factor) {
+            return new Match(docs, weights, size, factor, maxWeight);
+        }
+    }
+
+    /**
+     * Matching documents for one query term with their weights, scaled by {@code factor};
+     * no weight exceeds {@code maxWeight}.
+     */
+    private record Match(int[] docs, float[] weights, int size, float factor, float maxWeight) {
+
+        static final Match NONE = new Match(new int[0], new float[0], 0, 0f, 0f);
+
+        /**
+         * First position at or after {@code from} whose document is not below {@code doc}.
+         */
+        int advance(int from, int doc) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            // Gallop, then binary search the bracketed run
+            while (high < size && docs[high] < doc) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (docs[mid] < doc) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
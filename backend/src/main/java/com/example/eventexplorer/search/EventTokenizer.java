@@ -0,0 +1,70 @@
+package com.example.eventexplorer.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into lower-case, accent-free terms on anything that is not a letter or digit.
+ * Stop words are dropped so they neither bloat the postings nor dominate ranking, except for a
+ * query's unfinished last term: "the" may be the start of "theatre".
+ */
+final class EventTokenizer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "the", "this", "to", "with");
+
+    private EventTokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        return tokenize(text, false);
+    }
+
+    /**
+     * Terms of a search query; the last one is kept even if it is a stop word, unless the
+     * query ends in a separator.
+     */
+    static List<String> tokenizeQuery(String query) {
+        return tokenize(query, true);
+    }
+
+    static boolean isStopWord(String term) {
+        return STOP_WORDS.contains(term);
+    }
+
+    private static List<String> tokenize(String text, boolean keepLast) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+            } else {
+                add(terms, term, false);
+            }
+        }
+        add(terms, term, keepLast);
+        return terms;
+    }
+
+    private static void add(List<String> terms, StringBuilder term, boolean keepStopWord) {
+        if (term.length() > 0) {
+            String value = term.toString();
+            if (keepStopWord || !STOP_WORDS.contains(value)) {
+                terms.add(value);
+            }
+            term.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.eventexplorer.search;
+
+import com.example.eventexplorer.model.Event;
+import com.example.eventexplorer.repository.EventRepository;
+import com.example.eventexplorer.repository.UpcomingEventView;
+import com.example.eventexplorer.service.EventChange;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Future events in {@code (date, id)} order with one bitset per category, answering
+ * "events between these dates, optionally in this category" without touching the database.
+ *
+ * <p>Readers use an immutable snapshot; mutations copy it under a lock. Catalog writes are rare
+ * next to reads, so copying a few arrays per write is cheaper than locking every read.
+ * Events whose date has passed are pruned on a schedule and never returned.
+ */
+@Component
+public class UpcomingEventIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UpcomingEventIndex.class);
+
+    private final EventRepository eventRepository;
+    private final Clock clock = Clock.systemDefaultZone();
+    private final Object writeLock = new Object();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    // Guarded by writeLock; non-null while a rebuild is reading the catalog
+    private List<EventChange> changesDuringRebuild;
+
+    public UpcomingEventIndex(EventRepository eventRepository, MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        Gauge.builder("events.upcoming.indexed", this, index -> index.snapshot.size()).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (writeLock) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        List<UpcomingEventView> rows = List.of();
+        try {
+            rows = eventRepository.findUpcoming(LocalDateTime.now(clock));
+        } finally {
+            synchronized (writeLock) {
+                long[] keys = new long[rows.size()];
+                long[] ids = new long[rows.size()];
+                Map<String, BitSet> categories = new HashMap<>();
+                for (int i = 0; i < rows.size(); i++) {
+                    UpcomingEventView row = rows.get(i);
+                    keys[i] = key(row.getDate());
+                    ids[i] = row.getId();
+                    categories.computeIfAbsent(row.getCategory(), c -> new BitSet()).set(i);
+                }
+                Snapshot fresh = new Snapshot(keys, ids, categories);
+                // Changes committed while reading may be missing from the rows; replaying is idempotent
+                for (EventChange change : changesDuringRebuild) {
+                    fresh = fresh.apply(change, LocalDateTime.now(clock));
+                }
+                changesDuringRebuild = null;
+                snapshot = fresh;
+            }
+        }
+        log.info("Upcoming event index built with {} events", rows.size());
+    }
+
+    @TransactionalEventListener
+    public void onEventChange(EventChange change) {
+        synchronized (writeLock) {
+            snapshot = snapshot.apply(change, LocalDateTime.now(clock));
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.events.upcoming.prune-interval:PT1M}")
+    public void prunePast() {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            int first = current.lowerBound(key(LocalDateTime.now(clock)));
+            if (first > 0) {
+                snapshot = current.slice(first);
+                log.debug("Pruned {} past events from the upcoming index", first);
+            }
+        }
+    }
+
+    /**
+     * Ids of events with {@code from <= date < to} in {@code (date, id)} order. Both bounds are
+     * optional, {@code from} never reaches into the past, and a {@code null} category matches all.
+     */
+    public List<Long> find(LocalDateTime from, LocalDateTime to, String category, int limit) {
+        Snapshot current = snapshot;
+        LocalDateTime now = LocalDateTime.now(clock);
+        int start = current.lowerBound(key(from == null || from.isBefore(now) ? now : from));
+        int end = to == null ? current.size() : current.lowerBound(key(to));
+
+        List<Long> ids = new ArrayList<>(Math.min(limit, Math.max(end - start, 0)));
+        if (category == null) {
+            for (int i = start; i < end && ids.size() < limit; i++) {
+                ids.add(current.ids[i]);
+            }
+            return ids;
+        }
+        BitSet members = current.categories.get(category);
+        if (members == null) {
+            return ids;
+        }
+        for (int i = members.nextSetBit(start); i >= 0 && i < end && ids.size() < limit; i = members.nextSetBit(i + 1)) {
+            ids.add(current.ids[i]);
+        }
+        return ids;
+    }
+
+    // Sort key with the same order as LocalDateTime; good until the year 2262
+    private static long key(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + date.getNano();
+    }
+
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new long[0], new long[0], Map.of());
+
+        // Parallel arrays sorted by (key, id)
+        final long[] keys;
+        final long[] ids;
+        final Map<String, BitSet> categories;
+
+        Snapshot(long[] keys, long[] ids, Map<String, BitSet> categories) {
+            this.keys = keys;
+            this.ids = ids;
+            this.categories = categories;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        /**
+         * First position whose key is not below {@code key}.
+         */
+        int lowerBound(long key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        Snapshot apply(EventChange change, LocalDateTime now) {
+            Snapshot without = remove(change.getEventId());
+            Event event = change.getEvent();
+            if (change.getType() == EventChange.Type.DELETED || event.getDate().isBefore(now)) {
+                return without;
+            }
+            return without.insert(key(event.getDate()), event.getId(), event.getCategory());
+        }
+
+        Snapshot slice(int from) {
+            Map<String, BitSet> shifted = new HashMap<>();
+            categories.forEach((category, members) -> {
+                BitSet kept = members.get(from, Math.max(from, members.length()));
+                if (!kept.isEmpty()) {
+                    shifted.put(category, kept);
+                }
+            });
+            return new Snapshot(Arrays.copyOfRange(keys, from, keys.length),
+                    Arrays.copyOfRange(ids, from, ids.length), shifted);
+        }
+
+        private Snapshot remove(Long eventId) {
+            int position = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == eventId) {
+                    position = i;
+                    break;
+                }
+            }
+            if (position < 0) {
+                return this;
+            }
+            long[] newKeys = new long[keys.length - 1];
+            long[] newIds = new long[ids.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(keys, position + 1, newKeys, position, keys.length - position - 1);
+            System.arraycopy(ids, 0, newIds, 0, position);
+            System.arraycopy(ids, position + 1, newIds, position, ids.length - position - 1);
+            return new Snapshot(newKeys, newIds, shiftCategories(position, -1, null));
+        }
+
+        private Snapshot insert(long key, long eventId, String category) {
+            int position = lowerBound(key);
+            while (position < keys.length && keys[position] == key && ids[position] < eventId) {
+                position++;
+            }
+            long[] newKeys = new long[keys.length + 1];
+            long[] newIds = new long[ids.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(keys, position, newKeys, position + 1, keys.length - position);
+            System.arraycopy(ids, 0, newIds, 0, position);
+            System.arraycopy(ids, position, newIds, position + 1, ids.length - position);
+            newKeys[position] = key;
+            newIds[position] = eventId;
+            return new Snapshot(newKeys, newIds, shiftCategories(position, 1, category));
+        }
+
+        /**
+         * Category bitsets with the bits at and after {@code position} moved by {@code delta}
+         * (+1 for an insert, -1 for a removal); {@code added} gets the inserted position set.
+         */
+        private Map<String, BitSet> shiftCategories(int position, int delta, String added) {
+            Map<String, BitSet> shifted = new HashMap<>(categories.size() * 2);
+            categories.forEach((category, members) -> {
+                BitSet copy = members.get(0, position);
+                int tailStart = delta < 0 ? position + 1 : position;
+                for (int i = members.nextSetBit(tailStart); i >= 0; i = members.nextSetBit(i + 1)) {
+                    copy.set(i + delta);
+                }
+                if (!copy.isEmpty()) {
+                    shifted.put(category, copy);
+                }
+            });
+            if (added != null) {
+                shifted.computeIfAbsent(added, c -> new BitSet()).set(position);
+            }
+            return shifted;
+        }
+    }
+}
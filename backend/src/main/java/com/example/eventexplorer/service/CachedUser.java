@@ -0,0 +1,42 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.model.Role;
+import com.example.eventexplorer.model.User;
+
+/**
+ * Immutable copy of the user columns needed on the request path.
+ */
+public final class CachedUser {
+
+    private final Long id;
+    private final String username;
+    private final Role role;
+    private final String passwordHash;
+
+    public CachedUser(Long id, String username, Role role, String passwordHash) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.passwordHash = passwordHash;
+    }
+
+    public static CachedUser of(User user) {
+        return new CachedUser(user.getId(), user.getUsername(), user.getRole(), user.getPassword());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.config.ReplicaRoutingDataSource;
+import com.example.eventexplorer.dto.EventFilter;
+import com.example.eventexplorer.dto.EventPageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The catalog as an anonymous caller pages through it, serialized to JSON and gzip ahead of
+ * time so {@code GET /events} without credentials, with no parameter or only a cursor, is a
+ * byte copy. Pages are keyed by the cursor that requests them and rendered up to
+ * {@code max-pages}; cursors past that are answered from the database as before.
+ *
+ * <p>The snapshot carries the catalog stamp it was built for and each page its ETag at that
+ * stamp. A scheduled check rebuilds it off the request path once {@link CatalogVersion} has
+ * moved on, so any number of writes within one interval cost a single rebuild; until then
+ * callers get the previous snapshot. Rebuilds stop as soon as the context starts closing, so
+ * none runs against a connection pool that is shutting down.
+ */
+@Component
+@ConditionalOnProperty(value = "app.events.snapshot.enabled", matchIfMissing = true)
+public class CatalogSnapshot implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    // Scope of an anonymous request with at most a cursor, as in EventController
+    private static final String FIRST_PAGE = "";
+    private static final String CURSOR_SCOPE = "&cursor=";
+
+    private final EventService eventService;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final int maxPages;
+    private final Timer rebuildTimer;
+    private volatile Snapshot current;
+    private volatile boolean running;
+
+    public CatalogSnapshot(EventService eventService,
+                           CatalogVersion catalogVersion,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.events.snapshot.max-pages:20}") int maxPages) {
+        this.eventService = eventService;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.maxPages = maxPages;
+        this.rebuildTimer = Timer.builder("events.snapshot.rebuild")
+                .description("Time to render the anonymous catalog snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The latest rendering of the page a cursor asks for, null for the first page; null when
+     * there is no snapshot yet or the cursor is not one the snapshot handed out.
+     */
+    public Page get(String cursor) {
+        Snapshot snapshot = current;
+        return snapshot != null ? snapshot.pages().get(cursor != null ? cursor : FIRST_PAGE) : null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.events.snapshot.interval:PT0.5S}")
+    public void refresh() {
+        if (!running) {
+            return;
+        }
+        // Taken before reading, so a write during the rebuild leaves the snapshot stale, not wrong
+        long stamp = catalogVersion.catalogStamp();
+        Snapshot snapshot = current;
+        if (snapshot != null && snapshot.stamp() == stamp) {
+            return;
+        }
+        try {
+            current = rebuildTimer.recordCallable(() -> render(stamp));
+        } catch (Exception e) {
+            log.warn("Could not rebuild the catalog snapshot", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    // Stopped in the first shutdown phase, ahead of the scheduler and the data source
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private Snapshot render(long stamp) throws IOException {
+        Map<String, Page> pages = new HashMap<>();
+        String cursor = null;
+        do {
+            EventCursor after = cursor != null ? EventCursor.decode(cursor) : null;
+            // Served until the next change, so it must not be read from a replica that is behind the stamp
+            EventPageDto page = ReplicaRoutingDataSource.onPrimary(() ->
+                    eventService.getEventsPage(new EventFilter(null, null, null, null), after, null, null));
+            String scope = cursor != null ? CURSOR_SCOPE + cursor : FIRST_PAGE;
+            pages.put(cursor != null ? cursor : FIRST_PAGE,
+                    render(catalogVersion.catalogTag(stamp, scope), page));
+            cursor = page.getNextCursor();
+        } while (cursor != null && pages.size() < maxPages);
+        return new Snapshot(stamp, Map.copyOf(pages));
+    }
+
+    private Page render(String etag, EventPageDto page) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(page.getItems());
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(json);
+        }
+        return new Page(etag, page.getNextCursor(), json, gzipped.toByteArray());
+    }
+
+    private record Snapshot(long stamp, Map<String, Page> pages) {
+    }
+
+    public record Page(String etag, String nextCursor, byte[] json, byte[] gzip) {
+
+        /**
+         * Strong tag of the gzip body; the bytes differ from the identity body, so the tags must too.
+         */
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+    }
+}
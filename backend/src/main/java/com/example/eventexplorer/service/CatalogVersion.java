@@ -0,0 +1,82 @@
+package com.example.eventexplorer.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version stamps for the event catalog and for each event, bumped after every committed
+ * event or participation write. Strong ETags are derived from them, so an unchanged
+ * resource can be answered with 304 before any repository is touched.
+ *
+ * <p>Participation bumps run after the {@link ParticipationCounterStore} has applied the
+ * change, so a tag is never paired with counts older than it.
+ *
+ * <p>Stamps live in memory; the per-instance epoch keeps tags from two processes or two
+ * restarts from ever matching.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 16);
+    private final AtomicLong catalog = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Long, Long> events = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener
+    public void onEventChange(EventChange change) {
+        bumpEvent(change.getEventId());
+    }
+
+    @TransactionalEventListener
+    public void onParticipationChange(ParticipationChange change) {
+        bumpEvent(change.getEventId());
+    }
+
+    public void bumpEvent(Long eventId) {
+        events.merge(eventId, 1L, Long::sum);
+        catalog.incrementAndGet();
+    }
+
+    /**
+     * Invalidates every tag handed out so far, for changes that are not tied to one event.
+     */
+    public void bumpAll() {
+        generation.incrementAndGet();
+        catalog.incrementAndGet();
+    }
+
+    /**
+     * ETag for a catalog response; {@code scope} distinguishes the caller and query parameters.
+     */
+    public String catalogTag(String scope) {
+        return catalogTag(catalogStamp(), scope);
+    }
+
+    /**
+     * The catalog stamp the next {@link #catalogTag(String)} would use; with
+     * {@link #catalogTag(long, String)} it derives several tags from one point in time.
+     */
+    public long catalogStamp() {
+        return catalog.get();
+    }
+
+    public String catalogTag(long stamp, String scope) {
+        return tag("c" + stamp, scope);
+    }
+
+    public String eventTag(Long eventId, String scope) {
+        return tag("e" + eventId + "." + generation.get() + "." + events.getOrDefault(eventId, 0L), scope);
+    }
+
+    private String tag(String version, String scope) {
+        String scopeHash = DigestUtils.md5DigestAsHex(scope.getBytes(StandardCharsets.UTF_8)).substring(0, 12);
+        return "\"" + epoch + "-" + version + "-" + scopeHash + "\"";
+    }
+}
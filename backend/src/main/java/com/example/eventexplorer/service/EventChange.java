@@ -0,0 +1,38 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.model.Event;
+
+/**
+ * Published by {@link EventService} for every catalog mutation. {@link #getEvent()} is the
+ * saved state and is {@code null} for deletions.
+ */
+public class EventChange {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final Long eventId;
+    private final Event event;
+
+    public EventChange(Type type, Long eventId, Event event) {
+        this.type = type;
+        this.eventId = eventId;
+        this.event = event;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public Event getEvent() {
+        return event;
+    }
+}
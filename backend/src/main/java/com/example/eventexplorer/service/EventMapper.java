@@ -0,0 +1,56 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.dto.EventDto;
+import com.example.eventexplorer.dto.ParticipationCountsDto;
+import com.example.eventexplorer.model.Event;
+import com.example.eventexplorer.model.ParticipationStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class EventMapper {
+
+    private final ParticipationCounterStore counterStore;
+    private final ImageVariantService imageVariantService;
+
+    public EventMapper(ParticipationCounterStore counterStore, ImageVariantService imageVariantService) {
+        this.counterStore = counterStore;
+        this.imageVariantService = imageVariantService;
+    }
+
+    public EventDto toDto(Event event, ParticipationStatus myStatus) {
+        return toDto(event, myStatus, counterStore.get(event));
+    }
+
+    public List<EventDto> toDtos(List<Event> events, Map<Long, ParticipationStatus> myStatuses) {
+        // One lookup for the page, so uncached events are read together
+        Map<Long, ParticipationCountsDto> counts = counterStore.getAll(events.stream().map(Event::getId).toList());
+        List<EventDto> dtos = new ArrayList<>(events.size());
+        for (Event event : events) {
+            ParticipationCountsDto eventCounts = counts.get(event.getId());
+            dtos.add(eventCounts != null
+                    ? toDto(event, myStatuses.get(event.getId()), eventCounts)
+                    : toDto(event, myStatuses.get(event.getId())));
+        }
+        return dtos;
+    }
+
+    private EventDto toDto(Event event, ParticipationStatus myStatus, ParticipationCountsDto counts) {
+        EventDto dto = new EventDto();
+        dto.setId(event.getId());
+        dto.setTitle(event.getTitle());
+        dto.setDescription(event.getDescription());
+        dto.setDate(event.getDate());
+        dto.setLocation(event.getLocation());
+        dto.setCategory(event.getCategory());
+        dto.setImageUrl(event.getImageUrl());
+        dto.setImageVariants(imageVariantService.variantsOf(event.getImageUrl()));
+        dto.setInterestedCount(counts.getInterestedCount());
+        dto.setGoingCount(counts.getGoingCount());
+        dto.setMyStatus(myStatus);
+        return dto;
+    }
+}
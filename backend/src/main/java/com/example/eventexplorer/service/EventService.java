@@ -1,17 +1,30 @@
 package com.example.eventexplorer.service;
 
 import com.example.eventexplorer.dto.EventDto;
+import com.example.eventexplorer.dto.EventFilter;
+import com.example.eventexplorer.dto.EventPageDto;
 import com.example.eventexplorer.dto.EventRequest;
-import com.example.eventexplorer.model.User;
 import com.example.eventexplorer.model.Event;
 import com.example.eventexplorer.model.ParticipationStatus;
-import com.example.eventexplorer.repository.EventParticipationRepository;
 import com.example.eventexplorer.repository.EventRepository;
-import com.example.eventexplorer.repository.UserRepository;
+import com.example.eventexplorer.search.EventSearchIndex;
+import com.example.eventexplorer.search.UpcomingEventIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,15 +32,37 @@ import java.util.stream.Collectors;
 public class EventService {
 
     private final EventRepository eventRepository;
-    private final EventParticipationRepository participationRepository;
-    private final UserRepository userRepository;
+    private final EventMapper eventMapper;
+    private final EventSearchIndex searchIndex;
+    private final UpcomingEventIndex upcomingIndex;
+    private final UserCache userCache;
+    private final ParticipationService participationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
     public EventService(EventRepository eventRepository,
-                        EventParticipationRepository participationRepository,
-                        UserRepository userRepository) {
+                        EventMapper eventMapper,
+                        EventSearchIndex searchIndex,
+                        UpcomingEventIndex upcomingIndex,
+                        UserCache userCache,
+                        ParticipationService participationService,
+                        ApplicationEventPublisher eventPublisher,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.events.page-size:50}") int defaultPageSize,
+                        @Value("${app.events.max-page-size:200}") int maxPageSize) {
         this.eventRepository = eventRepository;
-        this.participationRepository = participationRepository;
-        this.userRepository = userRepository;
+        this.eventMapper = eventMapper;
+        this.searchIndex = searchIndex;
+        this.upcomingIndex = upcomingIndex;
+        this.userCache = userCache;
+        this.participationService = participationService;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @Transactional(readOnly = true)
@@ -37,38 +72,85 @@ public class EventService {
 
     @Transactional(readOnly = true)
     public EventDto getEventById(Long id) {
-        Event event = eventRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Event not found: " + id));
-        return toDtoWithCountsAndStatus(event, null);
+        return getEventByIdForUser(id, null);
     }
 
+    /**
+     * Builds the whole catalog from two parts: the events, which carry their
+     * participation counters, and the caller's own statuses from the status index.
+     */
     @Transactional(readOnly = true)
     public List<EventDto> getAllEventsForUser(String username) {
-        User user = null;
-        if (username != null) {
-            user = userRepository.findByUsername(username).orElse(null);
+        List<Event> rows = eventRepository.findAll(Sort.by("id"));
+        return eventMapper.toDtos(rows, myStatuses(username));
+    }
+
+    /**
+     * Keyset page ordered by {@code (date, id)}. One row past the page size is
+     * read to decide whether a next cursor is returned.
+     */
+    @Transactional(readOnly = true)
+    public EventPageDto getEventsPage(EventFilter filter, EventCursor after, Integer limit, String username) {
+        int pageSize = pageSize(limit);
+        List<Event> rows = after == null
+                ? eventRepository.findPage(
+                        filter.getCategory(),
+                        filter.getLocation(),
+                        filter.getFrom(),
+                        filter.getTo(),
+                        Limit.of(pageSize + 1))
+                : eventRepository.findPageAfter(
+                        filter.getCategory(),
+                        filter.getLocation(),
+                        filter.getFrom(),
+                        filter.getTo(),
+                        after.getDate(),
+                        after.getId(),
+                        Limit.of(pageSize + 1));
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Event last = rows.get(pageSize - 1);
+            nextCursor = new EventCursor(last.getDate(), last.getId()).encode();
         }
-        User finalUser = user;
-        return eventRepository.findAll().stream()
-                .map(event -> toDtoWithCountsAndStatus(event, finalUser))
-                .collect(Collectors.toList());
+
+        Map<Long, ParticipationStatus> myStatuses = rows.isEmpty() ? Collections.emptyMap() : myStatuses(username);
+        return new EventPageDto(eventMapper.toDtos(rows, myStatuses), nextCursor);
+    }
+
+    /**
+     * Ranked full-text matches from the search index, loaded by primary key in rank order.
+     * The index is asked before the transaction starts, so no connection is held meanwhile.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<EventDto> searchEvents(String query, Integer limit, String username) {
+        List<Long> ids = searchIndex.search(query, pageSize(limit));
+        return ids.isEmpty() ? List.of() : readOnlyTransaction.execute(status -> loadInOrder(ids, username));
+    }
+
+    /**
+     * Future events in {@code (date, id)} order, answered from the in-memory upcoming index.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<EventDto> getUpcomingEvents(LocalDateTime from, LocalDateTime to, String category,
+                                            Integer limit, String username) {
+        List<Long> ids = upcomingIndex.find(from, to, category, pageSize(limit));
+        return ids.isEmpty() ? List.of() : readOnlyTransaction.execute(status -> loadInOrder(ids, username));
     }
 
     @Transactional(readOnly = true)
     public EventDto getEventByIdForUser(Long id, String username) {
         Event event = eventRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Event not found: " + id));
-        User user = null;
-        if (username != null) {
-            user = userRepository.findByUsername(username).orElse(null);
-        }
-        return toDtoWithCountsAndStatus(event, user);
+        return toDtoWithCountsAndStatus(event, username);
     }
 
     public EventDto createEvent(EventRequest request) {
         Event event = new Event();
         applyRequest(event, request);
         Event saved = eventRepository.save(event);
+        eventPublisher.publishEvent(new EventChange(EventChange.Type.CREATED, saved.getId(), saved));
         return toDtoWithCountsAndStatus(saved, null);
     }
 
@@ -77,11 +159,38 @@ public class EventService {
                 .orElseThrow(() -> new IllegalArgumentException("Event not found: " + id));
         applyRequest(event, request);
         Event saved = eventRepository.save(event);
+        eventPublisher.publishEvent(new EventChange(EventChange.Type.UPDATED, saved.getId(), saved));
         return toDtoWithCountsAndStatus(saved, null);
     }
 
     public void deleteEvent(Long id) {
         eventRepository.deleteById(id);
+        eventPublisher.publishEvent(new EventChange(EventChange.Type.DELETED, id, null));
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    /**
+     * Events for ids chosen by an index, in the index's order; ids deleted since are skipped.
+     */
+    private List<EventDto> loadInOrder(List<Long> ids, String username) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Event> byId = eventRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+        List<Event> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Event event = byId.get(id);
+            if (event != null) {
+                rows.add(event);
+            }
+        }
+
+        Map<Long, ParticipationStatus> myStatuses = rows.isEmpty() ? Collections.emptyMap() : myStatuses(username);
+        return eventMapper.toDtos(rows, myStatuses);
     }
 
     private void applyRequest(Event event, EventRequest request) {
@@ -93,25 +202,22 @@ public class EventService {
         event.setImageUrl(request.getImageUrl());
     }
 
-    private EventDto toDtoWithCountsAndStatus(Event event, User user) {
-        long interested = participationRepository.countByEventAndStatus(event, ParticipationStatus.INTERESTED);
-        long going = participationRepository.countByEventAndStatus(event, ParticipationStatus.GOING);
-
-        EventDto dto = new EventDto();
-        dto.setId(event.getId());
-        dto.setTitle(event.getTitle());
-        dto.setDescription(event.getDescription());
-        dto.setDate(event.getDate());
-        dto.setLocation(event.getLocation());
-        dto.setCategory(event.getCategory());
-        dto.setImageUrl(event.getImageUrl());
-        dto.setInterestedCount(interested);
-        dto.setGoingCount(going);
-        if (user != null) {
-            participationRepository.findByEventAndUser(event, user)
-                    .ifPresent(p -> dto.setMyStatus(p.getStatus()));
+    private EventDto toDtoWithCountsAndStatus(Event event, String username) {
+        return eventMapper.toDto(event, myStatuses(username).get(event.getId()));
+    }
+
+    /**
+     * The caller's statuses by event id; empty for anonymous callers.
+     */
+    private Map<Long, ParticipationStatus> myStatuses(String username) {
+        Long userId = resolveUserId(username);
+        return userId != null ? participationService.getStatuses(userId) : Collections.emptyMap();
+    }
+
+    private Long resolveUserId(String username) {
+        if (username == null) {
+            return null;
         }
-        return dto;
+        return userCache.get(username).map(CachedUser::getId).orElse(null);
     }
 }
-
@@ -0,0 +1,116 @@
+package com.example.eventexplorer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Byte-weighted cache of image files with their response headers precomputed, so a hit is
+ * served without touching the file system. Images never change under a name (uploads are
+ * content-addressed), so entries need no invalidation and leave only by eviction.
+ *
+ * <p>Files above {@code app.images.cache.max-entry-size} are never cached; {@link #lookup}
+ * then returns an {@link ImageFile} without body, to be sent straight from disk.
+ * Hit/miss statistics are published as {@code cache.*} with {@code cache=images}.
+ */
+@Component
+public class ImageCache {
+
+    private final ImageStorageService imageStorageService;
+    private final Cache<String, ImageFile> cache;
+    private final long maxEntrySize;
+    private final Counter cacheBytes;
+    private final Counter fileBytes;
+
+    public ImageCache(ImageStorageService imageStorageService,
+                      MeterRegistry meterRegistry,
+                      @Value("${app.images.cache.max-size:64MB}") DataSize maxSize,
+                      @Value("${app.images.cache.max-entry-size:1MB}") DataSize maxEntrySize) {
+        this.imageStorageService = imageStorageService;
+        this.maxEntrySize = maxEntrySize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<String, ImageFile>weigher((name, image) -> image.body().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "images");
+        Gauge.builder("images.cache.bytes", cache, c -> c.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .description("Bytes of image data held in memory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.cacheBytes = servedCounter(meterRegistry, "memory");
+        this.fileBytes = servedCounter(meterRegistry, "file");
+    }
+
+    /**
+     * Looks up an image by its path below the upload directory; null when there is no such
+     * file or the path leaves the directory.
+     */
+    public ImageFile lookup(String name) throws IOException {
+        ImageFile cached = cache.getIfPresent(name);
+        if (cached != null) {
+            return cached;
+        }
+
+        Path directory = imageStorageService.getDirectory();
+        Path file = directory.resolve(name).normalize();
+        if (!file.startsWith(directory) || file.getFileName().toString().startsWith(".")) {
+            return null;
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(attributes.size()) + "\"";
+        MediaType contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        if (attributes.size() > maxEntrySize) {
+            return new ImageFile(file, attributes.size(), etag, lastModified, contentType, null);
+        }
+        ImageFile image = new ImageFile(file, attributes.size(), etag, lastModified, contentType,
+                Files.readAllBytes(file));
+        cache.put(name, image);
+        return image;
+    }
+
+    public void recordServed(ImageFile image) {
+        (image.body() != null ? cacheBytes : fileBytes).increment(image.size());
+    }
+
+    private static Counter servedCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("images.served.bytes")
+                .description("Image bytes written to responses")
+                .baseUnit("bytes")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * An image and its validators; {@code body} is null for files served from disk.
+     */
+    public record ImageFile(Path path, long size, String etag, long lastModified,
+                            MediaType contentType, byte[] body) {
+    }
+}
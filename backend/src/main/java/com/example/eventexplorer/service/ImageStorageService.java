@@ -0,0 +1,129 @@
+package com.example.eventexplorer.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Content-addressed storage for event images. Uploads are streamed once through a SHA-256
+ * digest into a temporary file next to their final location and then renamed to
+ * {@code <sha256>.<ext>}, so the same image uploaded twice is stored once and keeps its URL.
+ * The type is taken from the leading magic bytes, never from the client's filename or header.
+ */
+@Service
+public class ImageStorageService {
+
+    public static final String URL_PREFIX = "/api/images/";
+
+    private static final int MAGIC_LENGTH = 12;
+
+    private final Path directory;
+
+    public ImageStorageService(@Value("${app.uploads.dir:uploads/events}") String directory) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Stores the image and returns its URL. Throws {@link IllegalArgumentException} when the
+     * stream is empty or not one of the accepted image types.
+     */
+    public String store(InputStream content) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(content);
+        in.mark(MAGIC_LENGTH);
+        byte[] magic = in.readNBytes(MAGIC_LENGTH);
+        in.reset();
+        if (magic.length == 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        ImageType type = ImageType.detect(magic);
+        if (type == null) {
+            throw new IllegalArgumentException("Only JPEG, PNG, GIF and WebP images are accepted");
+        }
+
+        Files.createDirectories(directory);
+        // Not Files.createTempFile: its owner-only permissions would stick to the stored image
+        Path temp = directory.resolve(".upload-" + UUID.randomUUID() + ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (DigestInputStream hashing = new DigestInputStream(in, digest);
+                 OutputStream out = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW,
+                         StandardOpenOption.WRITE)) {
+                hashing.transferTo(out);
+            }
+            String filename = HexFormat.of().formatHex(digest.digest()) + "." + type.extension;
+            Path target = directory.resolve(filename);
+            if (!Files.exists(target)) {
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException ignored) {
+                    // a concurrent upload of the same image won the rename
+                }
+            }
+            return URL_PREFIX + filename;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    enum ImageType {
+        JPEG("jpg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+        PNG("png", new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}),
+        GIF("gif", new byte[]{'G', 'I', 'F', '8'}),
+        WEBP("webp", null);
+
+        final String extension;
+        private final byte[] signature;
+
+        ImageType(String extension, byte[] signature) {
+            this.extension = extension;
+            this.signature = signature;
+        }
+
+        static ImageType detect(byte[] magic) {
+            // RIFF....WEBP
+            if (magic.length >= 12 && startsWith(magic, new byte[]{'R', 'I', 'F', 'F'})
+                    && Arrays.equals(magic, 8, 12, new byte[]{'W', 'E', 'B', 'P'}, 0, 4)) {
+                return WEBP;
+            }
+            for (ImageType type : values()) {
+                if (type.signature != null && startsWith(magic, type.signature)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+
+        private static boolean startsWith(byte[] magic, byte[] prefix) {
+            return magic.length >= prefix.length
+                    && Arrays.equals(magic, 0, prefix.length, prefix, 0, prefix.length);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.dto.ImageVariantDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates downscaled JPEG variants of uploaded images on a bounded worker pool, so the
+ * catalog can serve a card-sized image instead of the original. Variants are written to
+ * {@code variants/<name>-<width>.jpg} beside the originals and only advertised through
+ * {@link #variantsOf(String)} once every width has been written. Originals are never upscaled,
+ * so a small image may have fewer variants than there are configured widths.
+ *
+ * <p>Uploads queue a job; when the queue is full the job is dropped and the image keeps being
+ * served as the original until the next start, when missing variants are backfilled.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+    private static final String VARIANT_DIR = "variants";
+    private static final Pattern VARIANT_NAME = Pattern.compile("(.+)-(\\d+)\\.jpg");
+
+    private final ImageStorageService imageStorageService;
+    private final CatalogVersion catalogVersion;
+    private final int[] widths;
+    private final float quality;
+    private final long maxPixels;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, List<ImageVariantDto>> ready = new ConcurrentHashMap<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Timer generateTimer;
+    private final Counter rejected;
+
+    public ImageVariantService(ImageStorageService imageStorageService,
+                               CatalogVersion catalogVersion,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.images.variants.widths:320,640,1280}") int[] widths,
+                               @Value("${app.images.variants.quality:0.8}") float quality,
+                               @Value("${app.images.variants.max-pixels:50000000}") long maxPixels,
+                               @Value("${app.images.variants.threads:2}") int threads,
+                               @Value("${app.images.variants.queue-capacity:100}") int queueCapacity) {
+        this.imageStorageService = imageStorageService;
+        this.catalogVersion = catalogVersion;
+        this.widths = widths.clone();
+        Arrays.sort(this.widths);
+        this.quality = quality;
+        this.maxPixels = maxPixels;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.generateTimer = Timer.builder("images.variants")
+                .description("Time to decode an image and write all of its variants")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("images.variants.rejected")
+                .description("Variant jobs dropped because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Variants of an image URL handed out by {@link ImageStorageService}, narrowest first;
+     * empty while they are being generated or when the image could not be decoded.
+     */
+    public List<ImageVariantDto> variantsOf(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(ImageStorageService.URL_PREFIX)) {
+            return List.of();
+        }
+        return ready.getOrDefault(imageUrl.substring(ImageStorageService.URL_PREFIX.length()), List.of());
+    }
+
+    /**
+     * Queues variant generation for a stored image; returns without waiting.
+     */
+    public void submit(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(ImageStorageService.URL_PREFIX)) {
+            return;
+        }
+        String name = imageUrl.substring(ImageStorageService.URL_PREFIX.length());
+        if (ready.containsKey(name) || !pending.add(name)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    generate(name);
+                } finally {
+                    pending.remove(name);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(name);
+            rejected.increment();
+            log.warn("Variant queue is full, serving {} without variants", name);
+        }
+    }
+
+    /**
+     * Registers the variants already on disk and backfills missing ones one image at a time on
+     * a single worker, so a large backlog does not crowd out new uploads.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Path directory = imageStorageService.getDirectory();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<String> missing = new ArrayList<>();
+        try {
+            Map<String, TreeMap<Integer, String>> onDisk = scanVariants(directory.resolve(VARIANT_DIR));
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (name.startsWith(".") || !Files.isRegularFile(file)) {
+                        continue;
+                    }
+                    // The narrowest variant is written last, so its presence means the set is complete
+                    TreeMap<Integer, String> variants = onDisk.get(baseName(name));
+                    if (variants != null && variants.firstKey() <= widths[0]) {
+                        ready.put(name, describe(variants));
+                    } else {
+                        missing.add(name);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not scan {} for image variants", directory, e);
+            return;
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        pending.addAll(missing);
+        log.info("Generating variants for {} images", missing.size());
+        try {
+            workers.execute(() -> {
+                for (String name : missing) {
+                    try {
+                        generate(name);
+                    } finally {
+                        pending.remove(name);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            missing.forEach(pending::remove);
+            rejected.increment();
+        }
+    }
+
+    private void generate(String name) {
+        Path original = imageStorageService.getDirectory().resolve(name);
+        try {
+            TreeMap<Integer, String> variants = generateTimer.recordCallable(() -> writeVariants(original, name));
+            if (variants != null) {
+                ready.put(name, describe(variants));
+                // Catalog responses carrying this image can now list its variants
+                catalogVersion.bumpAll();
+            }
+        } catch (Exception e) {
+            log.warn("Could not generate variants for {}", name, e);
+        }
+    }
+
+    /**
+     * Writes one variant per configured width, never wider than the original; the file name
+     * carries the actual width. Returns the variants by width, or null when undecodable.
+     */
+    private TreeMap<Integer, String> writeVariants(Path original, String name) throws IOException {
+        BufferedImage source = decode(original, name);
+        if (source == null) {
+            return null;
+        }
+        Path directory = imageStorageService.getDirectory().resolve(VARIANT_DIR);
+        Files.createDirectories(directory);
+
+        // Widest first, each step scaled from the previous one
+        TreeMap<Integer, String> variants = new TreeMap<>();
+        BufferedImage current = source;
+        for (int i = widths.length - 1; i >= 0; i--) {
+            int width = Math.min(widths[i], source.getWidth());
+            if (variants.containsKey(width)) {
+                continue;
+            }
+            current = scale(current, width);
+            String variantName = baseName(name) + "-" + width + ".jpg";
+            writeJpeg(current, directory.resolve(variantName));
+            variants.put(width, variantName);
+        }
+        return variants;
+    }
+
+    /**
+     * Decodes the first frame, or returns null when there is no decoder or the header claims
+     * more than {@code max-pixels}. The frame is subsampled on both axes so the decoded raster
+     * is never much wider than twice the widest variant nor holds more pixels than that width
+     * squared; a tall, narrow original stays as small in memory as a wide one.
+     */
+    private BufferedImage decode(Path original, String name) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                log.info("No decoder for {}, serving it without variants", name);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long width = reader.getWidth(0);
+                long height = reader.getHeight(0);
+                if (width * height > maxPixels) {
+                    log.warn("{} is {}x{}, over the {} pixel limit; serving it without variants",
+                            name, width, height, maxPixels);
+                    return null;
+                }
+                long decodedWidth = 2L * widths[widths.length - 1];
+                int subsampling = (int) Math.max(1, Math.max(width / decodedWidth,
+                        (long) Math.ceil(Math.sqrt((double) width * height / (decodedWidth * decodedWidth)))));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Bilinear downscale in halving steps, which avoids the aliasing of a single large step.
+     * The result is always opaque RGB since JPEG has no alpha.
+     */
+    private static BufferedImage scale(BufferedImage image, int targetWidth) {
+        BufferedImage current = image;
+        int width = image.getWidth();
+        do {
+            int nextWidth = Math.max(targetWidth, width / 2);
+            int nextHeight = Math.max(1, (int) Math.round((double) image.getHeight() * nextWidth / image.getWidth()));
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, nextWidth, nextHeight, Color.WHITE, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+            width = nextWidth;
+        } while (width > targetWidth);
+        return current;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        // Written aside and renamed, so a half-written variant is never served
+        Path temp = target.resolveSibling(".variant-" + UUID.randomUUID() + ".tmp");
+        try {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static Map<String, TreeMap<Integer, String>> scanVariants(Path directory) throws IOException {
+        Map<String, TreeMap<Integer, String>> variants = new HashMap<>();
+        if (!Files.isDirectory(directory)) {
+            return variants;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.jpg")) {
+            for (Path file : files) {
+                Matcher matcher = VARIANT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    variants.computeIfAbsent(matcher.group(1), key -> new TreeMap<>())
+                            .put(Integer.parseInt(matcher.group(2)), matcher.group());
+                }
+            }
+        }
+        return variants;
+    }
+
+    private static List<ImageVariantDto> describe(TreeMap<Integer, String> variants) {
+        List<ImageVariantDto> dtos = new ArrayList<>(variants.size());
+        variants.forEach((width, variantName) -> dtos.add(new ImageVariantDto(width,
+                ImageStorageService.URL_PREFIX + VARIANT_DIR + "/" + variantName)));
+        return List.copyOf(dtos);
+    }
+
+    private static String baseName(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
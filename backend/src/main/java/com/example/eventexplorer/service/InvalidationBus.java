@@ -0,0 +1,343 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.config.ReplicaLagGuard;
+import com.example.eventexplorer.model.Event;
+import com.example.eventexplorer.model.ParticipationStatus;
+import com.example.eventexplorer.repository.EventRepository;
+import com.example.eventexplorer.search.EventSearchIndex;
+import com.example.eventexplorer.search.UpcomingEventIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Keeps the in-process caches of several instances consistent through Postgres
+ * {@code LISTEN/NOTIFY}.
+ *
+ * <p>Domain events published in a transaction are collected and sent with one {@code pg_notify}
+ * just before it commits; Postgres delivers notifications only if the transaction commits, and
+ * in commit order. A payload is the sender's origin id followed by one line per change:
+ * <pre>
+ * P &lt;eventId&gt; &lt;userId&gt; &lt;previous|-&gt; &lt;current|-&gt;
+ * E &lt;eventId&gt; &lt;CREATED|UPDATED|DELETED&gt;
+ * U &lt;userId&gt; &lt;username&gt;
+ * R &lt;eventId&gt;
+ * </pre>
+ * Each instance listens on a dedicated connection, skips its own messages and applies the rest
+ * to its caches. Counts are not carried: they are written in the sender's transaction, so the
+ * events a message touches are re-read from the database first, before the version bumps and
+ * broadcasts that assume the counts include the change.
+ *
+ * <p>Messages carry no entity version. They arrive in commit order, and receivers re-read the
+ * event or its counts rather than trusting the payload, so there is nothing to compare a
+ * version against. Notifications sent while the listener was disconnected are lost, so every
+ * reconnect ends with a full flush of the local caches.
+ */
+@Component
+@ConditionalOnProperty(value = "app.invalidation.enabled", havingValue = "true")
+public class InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private static final String CHANNEL = "cache_invalidation";
+    // Postgres rejects payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final String NONE = "-";
+    private static final String LISTENER_NAME = "cache-invalidation-listener";
+
+    private final String origin = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final EventRepository eventRepository;
+    private final CatalogVersion catalogVersion;
+    private final ParticipationCounterStore counterStore;
+    private final ParticipationStatusIndex statusIndex;
+    private final UserCache userCache;
+    private final EventSearchIndex searchIndex;
+    private final UpcomingEventIndex upcomingIndex;
+    private final ParticipationBroadcaster broadcaster;
+    private final ObjectProvider<ReplicaLagGuard> replicaLagGuard;
+    private final Duration pollInterval;
+    private final Duration reconnectDelay;
+    private final Thread listener;
+    private volatile boolean running = true;
+
+    private final Counter sent;
+    private final Counter received;
+    private final Counter flushes;
+
+    public InvalidationBus(JdbcTemplate jdbcTemplate,
+                           DataSourceProperties dataSourceProperties,
+                           EventRepository eventRepository,
+                           CatalogVersion catalogVersion,
+                           ParticipationCounterStore counterStore,
+                           ParticipationStatusIndex statusIndex,
+                           UserCache userCache,
+                           EventSearchIndex searchIndex,
+                           UpcomingEventIndex upcomingIndex,
+                           ParticipationBroadcaster broadcaster,
+                           ObjectProvider<ReplicaLagGuard> replicaLagGuard,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.invalidation.poll-interval:PT1S}") Duration pollInterval,
+                           @Value("${app.invalidation.reconnect-delay:PT2S}") Duration reconnectDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.eventRepository = eventRepository;
+        this.catalogVersion = catalogVersion;
+        this.counterStore = counterStore;
+        this.statusIndex = statusIndex;
+        this.userCache = userCache;
+        this.searchIndex = searchIndex;
+        this.upcomingIndex = upcomingIndex;
+        this.broadcaster = broadcaster;
+        this.replicaLagGuard = replicaLagGuard;
+        this.pollInterval = pollInterval;
+        this.reconnectDelay = reconnectDelay;
+        this.sent = Counter.builder("cache.invalidation.messages").tag("direction", "sent")
+                .description("Cache invalidation messages").register(meterRegistry);
+        this.received = Counter.builder("cache.invalidation.messages").tag("direction", "received")
+                .description("Cache invalidation messages").register(meterRegistry);
+        this.flushes = Counter.builder("cache.invalidation.flushes")
+                .description("Full flushes of the local caches after the listener reconnected")
+                .register(meterRegistry);
+        this.listener = new Thread(this::listen, LISTENER_NAME);
+        this.listener.setDaemon(true);
+        this.listener.start();
+    }
+
+    @EventListener
+    public void onParticipationChange(ParticipationChange change) {
+        send("P " + change.getEventId() + " " + change.getUserId() + " "
+                + code(change.getPrevious()) + " " + code(change.getCurrent()));
+    }
+
+    @EventListener
+    public void onEventChange(EventChange change) {
+        send("E " + change.getEventId() + " " + change.getType());
+    }
+
+    @EventListener
+    public void onCountsRepaired(ParticipationCountsRepaired repaired) {
+        repaired.getEventIds().forEach(eventId -> send("R " + eventId));
+    }
+
+    @EventListener
+    public void onUserChange(UserChange change) {
+        send("U " + change.getUserId() + " " + change.getUsername());
+    }
+
+    /**
+     * Queues the message on the current transaction, to go out with it just before commit.
+     */
+    @SuppressWarnings("unchecked")
+    private void send(String message) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(List.of(message));
+            return;
+        }
+        List<String> pending = (List<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<String> messages = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, messages);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    publish(messages);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InvalidationBus.this);
+                }
+            });
+            pending = messages;
+        }
+        pending.add(message);
+    }
+
+    private void publish(List<String> messages) {
+        int headerBytes = origin.length();
+        StringBuilder payload = new StringBuilder(origin);
+        int bytes = headerBytes;
+        for (String message : messages) {
+            int messageBytes = 1 + message.getBytes(StandardCharsets.UTF_8).length;
+            if (bytes > headerBytes && bytes + messageBytes > MAX_PAYLOAD_BYTES) {
+                pgNotify(payload.toString());
+                payload.setLength(0);
+                payload.append(origin);
+                bytes = headerBytes;
+            }
+            payload.append('\n').append(message);
+            bytes += messageBytes;
+        }
+        pgNotify(payload.toString());
+        sent.increment(messages.size());
+    }
+
+    private void pgNotify(String payload) {
+        jdbcTemplate.query("select pg_notify(?, ?)", rs -> null, CHANNEL, payload);
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    connectionProperties())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnecting) {
+                    // Listening again before flushing, so nothing committed after the flush is missed
+                    flushAll();
+                }
+                log.info("Listening for cache invalidations as {}", origin);
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications((int) pollInterval.toMillis());
+                    if (notifications == null || notifications.length == 0) {
+                        // An idle socket does not notice a dead server; a round trip does
+                        if (!connection.isValid((int) Math.max(1, reconnectDelay.toSeconds()))) {
+                            throw new SQLException("Invalidation listener connection is no longer valid");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        receive(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener disconnected, reconnecting in {}", reconnectDelay, e);
+                reconnecting = true;
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Properties connectionProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("user", dataSourceProperties.determineUsername());
+        properties.setProperty("password", dataSourceProperties.determinePassword());
+        // Tells the listener apart in pg_stat_activity
+        properties.setProperty("ApplicationName", LISTENER_NAME);
+        return properties;
+    }
+
+    private void receive(String payload) {
+        String[] lines = payload.split("\n");
+        if (lines[0].equals(origin)) {
+            return;
+        }
+        List<Long> counted = new ArrayList<>();
+        for (int i = 1; i < lines.length; i++) {
+            if (lines[i].startsWith("P ") || lines[i].startsWith("R ")) {
+                counted.add(Long.valueOf(lines[i].split(" ", 3)[1]));
+            }
+        }
+        if (!counted.isEmpty()) {
+            try {
+                counterStore.refresh(counted);
+            } catch (RuntimeException e) {
+                log.warn("Could not re-read participation counts of {} event(s)", counted.size(), e);
+            }
+        }
+        for (int i = 1; i < lines.length; i++) {
+            try {
+                apply(lines[i]);
+                received.increment();
+            } catch (RuntimeException e) {
+                log.warn("Could not apply cache invalidation '{}'", lines[i], e);
+            }
+        }
+    }
+
+    private void apply(String message) {
+        String[] parts = message.split(" ", 3);
+        Long id = Long.valueOf(parts[1]);
+        switch (parts[0]) {
+            case "P" -> {
+                String[] statuses = parts[2].split(" ");
+                ParticipationChange change = new ParticipationChange(id, Long.valueOf(statuses[0]),
+                        status(statuses[1]), status(statuses[2]));
+                statusIndex.onParticipationChange(change);
+                catalogVersion.onParticipationChange(change);
+                broadcaster.onParticipationChange(change);
+                replicaLagGuard.ifAvailable(guard -> guard.onParticipationChange(change));
+            }
+            case "E" -> {
+                EventChange.Type type = EventChange.Type.valueOf(parts[2]);
+                Event event = type == EventChange.Type.DELETED ? null : eventRepository.findById(id).orElse(null);
+                // Deleted again since the message was sent
+                EventChange change = new EventChange(event != null ? type : EventChange.Type.DELETED, id, event);
+                searchIndex.onEventChange(change);
+                upcomingIndex.onEventChange(change);
+                statusIndex.onEventChange(change);
+                counterStore.onEventChange(change);
+                catalogVersion.onEventChange(change);
+                replicaLagGuard.ifAvailable(guard -> guard.onEventChange(change));
+            }
+            case "U" -> userCache.onUserChange(new UserChange(id, parts[2]));
+            case "R" -> catalogVersion.bumpEvent(id);
+            default -> log.warn("Unknown cache invalidation '{}'", message);
+        }
+    }
+
+    /**
+     * Drops or rebuilds everything another instance may have changed.
+     */
+    private void flushAll() {
+        log.info("Flushing local caches after reconnecting");
+        userCache.invalidateAll();
+        statusIndex.invalidateAll();
+        counterStore.reload();
+        searchIndex.rebuild();
+        upcomingIndex.rebuild();
+        catalogVersion.bumpAll();
+        flushes.increment();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        listener.join(pollInterval.toMillis() * 2);
+    }
+
+    private static String code(ParticipationStatus status) {
+        return status != null ? status.name() : NONE;
+    }
+
+    private static ParticipationStatus status(String code) {
+        return NONE.equals(code) ? null : ParticipationStatus.valueOf(code);
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.dto.ParticipationCountsDto;
+import com.example.eventexplorer.dto.ParticipationUpdateDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes participation counts to Server-Sent Events subscribers.
+ *
+ * <p>Committed changes only mark their event dirty; once per interval every dirty event's
+ * counts are read from the {@link ParticipationCounterStore} and fanned out, so a burst of
+ * writes turns into at most one message per event per interval.
+ *
+ * <p>Streams are written with non-blocking servlet I/O: a message is written only while the
+ * connection can take it, and the rest waits in the subscriber's small bounded queue until the
+ * container reports it writable again. No thread ever waits on a client, so a stalled one
+ * cannot hold up the others; once its queue is full it is too slow to keep up and is
+ * disconnected.
+ */
+@Component
+public class ParticipationBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticipationBroadcaster.class);
+    private static final String EVENT_NAME = "counts";
+    private static final byte[] KEEPALIVE = ":keepalive\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final ParticipationCounterStore counterStore;
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final int maxEventsPerSubscriber;
+    private final int queueCapacity;
+    private final Duration timeout;
+
+    private final Map<Long, Set<Subscriber>> subscribersByEvent = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirtyEvents = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter dropped;
+
+    public ParticipationBroadcaster(ParticipationCounterStore counterStore,
+                                    ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.participation.stream.max-subscribers:1000}") int maxSubscribers,
+                                    @Value("${app.participation.stream.max-events-per-subscriber:200}") int maxEventsPerSubscriber,
+                                    @Value("${app.participation.stream.queue-capacity:8}") int queueCapacity,
+                                    @Value("${app.participation.stream.timeout:PT30M}") Duration timeout) {
+        this.counterStore = counterStore;
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.maxEventsPerSubscriber = maxEventsPerSubscriber;
+        this.queueCapacity = queueCapacity;
+        this.timeout = timeout;
+        this.dropped = Counter.builder("participation.stream.dropped")
+                .description("Subscribers disconnected because they could not keep up")
+                .register(meterRegistry);
+        Gauge.builder("participation.stream.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Turns the request into a stream for the given events and queues their current counts,
+     * read with one query for the uncached ones, as the first message.
+     *
+     * @throws IllegalArgumentException when too many events are requested
+     * @throws IllegalStateException when the subscriber limit is reached
+     */
+    public void subscribe(Collection<Long> eventIds, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (eventIds.isEmpty() || eventIds.size() > maxEventsPerSubscriber) {
+            throw new IllegalArgumentException("Subscribe to between 1 and " + maxEventsPerSubscriber + " events");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Too many participation stream subscribers");
+        }
+
+        response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(async, response.getOutputStream(), Set.copyOf(eventIds), queueCapacity);
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                unsubscribe(subscriber);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                close(subscriber);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                close(subscriber);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        subscribers.add(subscriber);
+        for (Long eventId : subscriber.eventIds) {
+            subscribersByEvent.computeIfAbsent(eventId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+
+        List<ParticipationUpdateDto> initial = new ArrayList<>();
+        counterStore.getAll(subscriber.eventIds).forEach((eventId, counts) ->
+                initial.add(new ParticipationUpdateDto(eventId, counts)));
+        // Queued before the listener is set, so the container's first callback writes it
+        enqueue(subscriber, initial);
+        subscriber.out.setWriteListener(new WriteListener() {
+            @Override
+            public void onWritePossible() {
+                subscriber.writable.set(true);
+                write(subscriber);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                close(subscriber);
+            }
+        });
+    }
+
+    @TransactionalEventListener
+    public void onParticipationChange(ParticipationChange change) {
+        if (subscribersByEvent.containsKey(change.getEventId())) {
+            dirtyEvents.add(change.getEventId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.participation.stream.interval:PT1S}")
+    public void publish() {
+        if (dirtyEvents.isEmpty()) {
+            return;
+        }
+        List<Long> eventIds = List.copyOf(dirtyEvents);
+        dirtyEvents.removeAll(eventIds);
+        Map<Subscriber, List<ParticipationUpdateDto>> batches = new HashMap<>();
+        Map<Long, ParticipationCountsDto> counts = counterStore.getAll(eventIds);
+        counts.forEach((eventId, eventCounts) -> {
+            Set<Subscriber> eventSubscribers = subscribersByEvent.get(eventId);
+            if (eventSubscribers == null) {
+                return;
+            }
+            ParticipationUpdateDto update = new ParticipationUpdateDto(eventId, eventCounts);
+            for (Subscriber subscriber : eventSubscribers) {
+                batches.computeIfAbsent(subscriber, s -> new ArrayList<>()).add(update);
+            }
+        });
+        batches.forEach(this::enqueue);
+    }
+
+    @Scheduled(fixedDelayString = "${app.participation.stream.heartbeat:PT20S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.isEmpty()) {
+                enqueue(subscriber, List.of());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(this::close);
+    }
+
+    private void enqueue(Subscriber subscriber, List<ParticipationUpdateDto> updates) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        byte[] message;
+        try {
+            message = encode(updates);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not encode participation updates", e);
+            return;
+        }
+        if (!subscriber.queue.offer(message)) {
+            dropped.increment();
+            log.debug("Dropping slow participation stream subscriber");
+            close(subscriber);
+            return;
+        }
+        write(subscriber);
+    }
+
+    /**
+     * An empty batch is a keepalive comment, which also commits the response of a stream whose
+     * events do not exist yet.
+     */
+    private byte[] encode(List<ParticipationUpdateDto> updates) throws JsonProcessingException {
+        if (updates.isEmpty()) {
+            return KEEPALIVE;
+        }
+        ByteArrayOutputStream message = new ByteArrayOutputStream(updates.size() * 96);
+        for (ParticipationUpdateDto update : updates) {
+            message.writeBytes(("event: " + EVENT_NAME + "\nid: " + update.getEventId() + "\ndata: ")
+                    .getBytes(StandardCharsets.UTF_8));
+            message.writeBytes(objectMapper.writeValueAsBytes(update));
+            message.writeBytes("\n\n".getBytes(StandardCharsets.UTF_8));
+        }
+        return message.toByteArray();
+    }
+
+    /**
+     * Writes queued messages while the connection accepts them. Called by the container when it
+     * becomes writable and by publishers after they queue; the lock keeps the two apart, as the
+     * output stream allows one writer at a time. A caller that cannot get the lock leaves its
+     * message to the holder, which checks the queue again after unlocking.
+     */
+    private void write(Subscriber subscriber) {
+        // Until the first onWritePossible the stream is not yet in non-blocking mode
+        while (subscriber.writable.get() && !subscriber.closed.get() && !subscriber.queue.isEmpty()
+                && subscriber.lock.tryLock()) {
+            try {
+                if (!drain(subscriber)) {
+                    // The connection is full; the container calls onWritePossible once it drains
+                    return;
+                }
+            } catch (IOException | IllegalStateException e) {
+                close(subscriber);
+                return;
+            } finally {
+                subscriber.lock.unlock();
+            }
+        }
+    }
+
+    // True once the queue is empty and everything written is flushed, false if the connection is full
+    private boolean drain(Subscriber subscriber) throws IOException {
+        while (!subscriber.closed.get()) {
+            if (!subscriber.out.isReady()) {
+                return false;
+            }
+            if (subscriber.unflushed) {
+                subscriber.out.flush();
+                subscriber.unflushed = false;
+                continue;
+            }
+            byte[] message = subscriber.queue.poll();
+            if (message == null) {
+                return true;
+            }
+            subscriber.out.write(message);
+            subscriber.unflushed = true;
+        }
+        return true;
+    }
+
+    private void close(Subscriber subscriber) {
+        if (unsubscribe(subscriber)) {
+            try {
+                subscriber.async.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+    }
+
+    private boolean unsubscribe(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return false;
+        }
+        subscriberCount.decrementAndGet();
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+        for (Long eventId : subscriber.eventIds) {
+            subscribersByEvent.computeIfPresent(eventId, (id, eventSubscribers) -> {
+                eventSubscribers.remove(subscriber);
+                return eventSubscribers.isEmpty() ? null : eventSubscribers;
+            });
+        }
+        return true;
+    }
+
+    private static final class Subscriber {
+        final AsyncContext async;
+        final ServletOutputStream out;
+        final Set<Long> eventIds;
+        final BlockingQueue<byte[]> queue;
+        final ReentrantLock lock = new ReentrantLock();
+        final AtomicBoolean writable = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        // Guarded by lock
+        boolean unflushed;
+
+        Subscriber(AsyncContext async, ServletOutputStream out, Set<Long> eventIds, int queueCapacity) {
+            this.async = async;
+            this.out = out;
+            this.eventIds = eventIds;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.model.ParticipationStatus;
+
+/**
+ * Published by {@link ParticipationService} for every participation write.
+ * A {@code null} status means the user has no participation on that side of the change.
+ */
+public class ParticipationChange {
+
+    private final Long eventId;
+    private final Long userId;
+    private final ParticipationStatus previous;
+    private final ParticipationStatus current;
+
+    public ParticipationChange(Long eventId, Long userId, ParticipationStatus previous, ParticipationStatus current) {
+        this.eventId = eventId;
+        this.userId = userId;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public ParticipationStatus getPrevious() {
+        return previous;
+    }
+
+    public ParticipationStatus getCurrent() {
+        return current;
+    }
+
+    public long interestedDelta() {
+        return delta(ParticipationStatus.INTERESTED);
+    }
+
+    public long goingDelta() {
+        return delta(ParticipationStatus.GOING);
+    }
+
+    private long delta(ParticipationStatus counted) {
+        return (current == counted ? 1 : 0) - (previous == counted ? 1 : 0);
+    }
+}
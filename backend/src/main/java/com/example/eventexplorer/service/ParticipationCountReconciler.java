@@ -0,0 +1,79 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.repository.EventCountsView;
+import com.example.eventexplorer.repository.EventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Periodically repairs drift between the denormalized counters on events and the
+ * participation rows they summarize. Also backfills the counters on first start.
+ *
+ * <p>The counters are written behind by {@link ParticipationCounterStore}, so the repair runs
+ * through {@link ParticipationCounterStore#repair}, which writes the pending deltas in the same
+ * transaction and holds participation writers off until it commits.
+ *
+ * <p>With several instances only one repairs at a time; the others skip the run rather than
+ * repair again right after it. The repaired events are published as
+ * {@link ParticipationCountsRepaired} so the others re-read them.
+ */
+@Component
+public class ParticipationCountReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticipationCountReconciler.class);
+
+    // pg_try_advisory_xact_lock key shared by every instance
+    private static final long REPAIR_LOCK = 0x65766e74636e7473L;
+
+    private final EventRepository eventRepository;
+    private final ParticipationCounterStore counterStore;
+    private final CatalogVersion catalogVersion;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ParticipationCountReconciler(EventRepository eventRepository,
+                                        ParticipationCounterStore counterStore,
+                                        CatalogVersion catalogVersion,
+                                        JdbcTemplate jdbcTemplate,
+                                        PlatformTransactionManager transactionManager,
+                                        ApplicationEventPublisher eventPublisher) {
+        this.eventRepository = eventRepository;
+        this.counterStore = counterStore;
+        this.catalogVersion = catalogVersion;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelayString = "${app.participation.reconcile-initial-delay:PT10S}",
+            fixedDelayString = "${app.participation.reconcile-interval:PT10M}")
+    public void reconcile() {
+        List<EventCountsView> repaired = transactionTemplate.execute(status -> {
+            // One instance repairs at a time, and takes the connection before participation writers are held off
+            Boolean locked = jdbcTemplate.queryForObject("select pg_try_advisory_xact_lock(?)", Boolean.class, REPAIR_LOCK);
+            if (!Boolean.TRUE.equals(locked)) {
+                log.debug("Another instance is repairing participation counters, skipping");
+                return null;
+            }
+            List<EventCountsView> rows = counterStore.repair(eventRepository::reconcileParticipationCounts);
+            if (!rows.isEmpty()) {
+                eventPublisher.publishEvent(new ParticipationCountsRepaired(
+                        rows.stream().map(EventCountsView::getId).toList()));
+            }
+            return rows;
+        });
+        if (repaired != null && !repaired.isEmpty()) {
+            log.info("Repaired participation counters on {} event(s)", repaired.size());
+            catalogVersion.bumpAll();
+        }
+    }
+}
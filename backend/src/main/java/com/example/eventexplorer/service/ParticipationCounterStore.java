@@ -0,0 +1,541 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.dto.ParticipationCountsDto;
+import com.example.eventexplorer.model.Event;
+import com.example.eventexplorer.repository.EventCountsView;
+import com.example.eventexplorer.repository.EventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * In-process participation counters keyed by event id.
+ *
+ * <p>Each event's count is a base plus striped pending deltas, so writers never contend on a
+ * shared lock. Entries are seeded lazily from the denormalized columns on {@code events},
+ * always as the primary has them.
+ *
+ * <p>Participation writers join the store before their first write ({@link #joinTransaction()}).
+ * From then until their transaction has completed and its deltas are applied, a {@link #repair}
+ * cannot start; while one runs, new writers wait. The deltas are applied ahead of every
+ * {@code @TransactionalEventListener} of the same transaction, so listeners that react to a
+ * change, such as {@link CatalogVersion} and {@link ParticipationBroadcaster}, see the counts
+ * that include it.
+ *
+ * <p>By default ({@code app.participation.counters.transactional}) nothing is written behind:
+ * a writer adds its deltas to the database columns just before it commits, in the same
+ * transaction as the participation rows, and cached counts are re-read from the primary after
+ * a local commit or a peer's ({@link #refresh}). No instance then holds deltas the database or
+ * its peers do not know about, so a lazy seed, a reload and a repair all start from complete
+ * counts. Seeds and re-reads are serialized, so a read from before a commit is never cached
+ * after that commit's re-read.
+ *
+ * <p>Setting it to false opts into write-behind for a single instance: committed changes are
+ * applied here first and written to the database by {@link #flush()}, saving the column update
+ * in every writer's transaction at the cost of losing up to one flush interval on a crash.
+ */
+@Component
+public class ParticipationCounterStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticipationCounterStore.class);
+
+    private final EventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean replicated;
+    private final boolean transactional;
+    private final Map<Long, EventCounter> counters = new ConcurrentHashMap<>();
+    // Not a monitor: flushes do JDBC, which must not pin a virtual thread's carrier
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Held while counts read from the database are stored as bases; never waits on another lock
+    private final ReentrantLock seedLock = new ReentrantLock();
+    // Shared by participation writers for their whole transaction, exclusive during a repair
+    private final ReentrantReadWriteLock repairGate = new ReentrantReadWriteLock();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer flushTimer;
+    private volatile long lastFlushNanos = System.nanoTime();
+
+    public ParticipationCounterStore(EventRepository eventRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.datasource.replica.url:}") String replicaUrl,
+                                     @Value("${app.participation.counters.transactional:true}")
+                                     boolean transactional) {
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.replicated = !replicaUrl.isEmpty();
+        this.transactional = transactional;
+        this.hits = Counter.builder("participation.counts.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("participation.counts.lookups").tag("result", "miss").register(meterRegistry);
+        this.flushTimer = Timer.builder("participation.counts.flush").register(meterRegistry);
+        Gauge.builder("participation.counts.events", counters, Map::size).register(meterRegistry);
+        Gauge.builder("participation.counts.pending.events", this, ParticipationCounterStore::pendingEvents)
+                .description("Events whose in-memory counts are ahead of the database")
+                .register(meterRegistry);
+        Gauge.builder("participation.counts.pending.changes", this, ParticipationCounterStore::pendingChanges)
+                .description("Absolute counter delta not yet written to the database")
+                .register(meterRegistry);
+        TimeGauge.builder("participation.counts.flush.lag", this, TimeUnit.NANOSECONDS,
+                        ParticipationCounterStore::flushLagNanos)
+                .description("Age of the oldest unflushed change")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts for a single event, reading the database only on the first lookup.
+     */
+    public ParticipationCountsDto get(Long eventId) {
+        EventCounter counter = counters.get(eventId);
+        if (counter != null) {
+            hits.increment();
+            return counter.snapshot();
+        }
+        misses.increment();
+        EventCounter seeded = seed(List.of(eventId)).get(eventId);
+        if (seeded == null) {
+            throw new IllegalArgumentException("Event not found: " + eventId);
+        }
+        return seeded.snapshot();
+    }
+
+    /**
+     * Counts for several events, reading all uncached ones with a single query; unknown events
+     * are left out. Events read here stay cached like any other.
+     */
+    public Map<Long, ParticipationCountsDto> getAll(Collection<Long> eventIds) {
+        Map<Long, ParticipationCountsDto> counts = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long eventId : eventIds) {
+            EventCounter counter = counters.get(eventId);
+            if (counter != null) {
+                hits.increment();
+                counts.put(eventId, counter.snapshot());
+            } else {
+                missing.add(eventId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            misses.increment(missing.size());
+            seed(missing).forEach((eventId, counter) -> counts.put(eventId, counter.snapshot()));
+        }
+        return counts;
+    }
+
+    /**
+     * Counts for an event the caller has already loaded. The entity may come from a replica,
+     * so the entry is seeded from the primary; only an event deleted meanwhile is answered from
+     * the entity's columns, uncached.
+     */
+    public ParticipationCountsDto get(Event event) {
+        EventCounter counter = counters.get(event.getId());
+        if (counter != null) {
+            hits.increment();
+            return counter.snapshot();
+        }
+        misses.increment();
+        EventCounter seeded = seed(List.of(event.getId())).get(event.getId());
+        return seeded != null
+                ? seeded.snapshot()
+                : new ParticipationCountsDto(event.getInterestedCount(), event.getGoingCount());
+    }
+
+    /**
+     * Called by participation writers in their transaction, before the first write. Holds off
+     * {@link #repair} until the transaction has completed; the changes it publishes are applied
+     * once it has committed.
+     */
+    public void joinTransaction() {
+        changesOfTransaction();
+    }
+
+    @EventListener
+    public void onParticipationChange(ParticipationChange change) {
+        List<ParticipationChange> changes = changesOfTransaction();
+        if (changes != null) {
+            changes.add(change);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ParticipationChange> changesOfTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        List<ParticipationChange> changes = (List<ParticipationChange>) TransactionSynchronizationManager.getResource(this);
+        if (changes != null) {
+            return changes;
+        }
+        List<ParticipationChange> joined = new ArrayList<>();
+        repairGate.readLock().lock();
+        TransactionSynchronizationManager.bindResource(this, joined);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                // Transactional event listeners default to the lowest precedence
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (transactional) {
+                    writeThrough(joined);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ParticipationCounterStore.this);
+                    if (status == STATUS_COMMITTED) {
+                        if (transactional) {
+                            refresh(joined.stream().map(ParticipationChange::getEventId).toList());
+                        } else {
+                            joined.forEach(ParticipationCounterStore.this::apply);
+                        }
+                    }
+                } finally {
+                    repairGate.readLock().unlock();
+                }
+            }
+        });
+        return joined;
+    }
+
+    private void apply(ParticipationChange change) {
+        long interested = change.interestedDelta();
+        long going = change.goingDelta();
+        if (interested == 0 && going == 0) {
+            return;
+        }
+        EventCounter counter = counters.get(change.getEventId());
+        if (counter == null) {
+            counter = seed(List.of(change.getEventId())).get(change.getEventId());
+            if (counter == null) {
+                counter = counters.computeIfAbsent(change.getEventId(), id -> new EventCounter(0, 0));
+            }
+        }
+        counter.add(interested, going);
+    }
+
+    /**
+     * Transactional counts: adds the transaction's deltas to the database columns, in event id
+     * order so concurrent writers lock the rows in the same order.
+     */
+    private void writeThrough(List<ParticipationChange> changes) {
+        Map<Long, long[]> deltas = new TreeMap<>();
+        for (ParticipationChange change : changes) {
+            long[] delta = deltas.computeIfAbsent(change.getEventId(), id -> new long[2]);
+            delta[0] += change.interestedDelta();
+            delta[1] += change.goingDelta();
+        }
+        deltas.forEach((eventId, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                eventRepository.adjustParticipationCounts(eventId, delta[0], delta[1]);
+            }
+        });
+    }
+
+    /**
+     * Re-reads the cached counts of events whose changes are already in the database: written
+     * through by a local commit, or by another instance. Uncached events are seeded on their
+     * next lookup.
+     */
+    public void refresh(Collection<Long> eventIds) {
+        seedLock.lock();
+        try {
+            List<Long> cached = eventIds.stream().distinct().filter(counters::containsKey).toList();
+            if (!cached.isEmpty()) {
+                rebase(readCounts(cached));
+            }
+        } finally {
+            seedLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onEventChange(EventChange change) {
+        if (change.getType() == EventChange.Type.DELETED) {
+            counters.remove(change.getEventId());
+        }
+    }
+
+    /**
+     * Writes all pending deltas to the database in one transaction. On failure the deltas stay
+     * pending and are retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.participation.counters.flush-interval:PT1S}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<PendingFlush> batch = pendingBatch();
+            if (batch.isEmpty()) {
+                lastFlushNanos = System.nanoTime();
+                return;
+            }
+
+            try {
+                flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> write(batch)));
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush participation counters for {} event(s), will retry", batch.size(), e);
+                return;
+            }
+            markFlushed(batch);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Runs {@code repair}, which rewrites drifted database counters and returns the rows it
+     * wrote, in the caller's transaction, and moves the cached bases to match once that commits.
+     *
+     * <p>Pending deltas are written in the same transaction, and no participation change can
+     * commit until it completes, so the rows the repair counts are exactly those whose deltas
+     * are in the bases. The caller should already hold its connection: writers that are held
+     * off keep theirs.
+     */
+    public List<EventCountsView> repair(Supplier<List<EventCountsView>> repair) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Counter repairs must run in a transaction");
+        }
+        flushLock.lock();
+        repairGate.writeLock().lock();
+        List<PendingFlush> batch = new ArrayList<>();
+        List<EventCountsView> repaired = new ArrayList<>();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        markFlushed(batch);
+                        seedLock.lock();
+                        try {
+                            rebase(repaired);
+                        } finally {
+                            seedLock.unlock();
+                        }
+                    }
+                } finally {
+                    repairGate.writeLock().unlock();
+                    flushLock.unlock();
+                }
+            }
+        });
+        batch.addAll(pendingBatch());
+        write(batch);
+        repaired.addAll(repair.get());
+        return repaired;
+    }
+
+    private List<PendingFlush> pendingBatch() {
+        List<PendingFlush> batch = new ArrayList<>();
+        counters.forEach((eventId, counter) -> {
+            long interested = counter.pendingInterested.sum();
+            long going = counter.pendingGoing.sum();
+            if (interested != 0 || going != 0) {
+                batch.add(new PendingFlush(eventId, counter, interested, going));
+            }
+        });
+        return batch;
+    }
+
+    private void write(List<PendingFlush> batch) {
+        for (PendingFlush pending : batch) {
+            eventRepository.adjustParticipationCounts(pending.eventId, pending.interested, pending.going);
+        }
+    }
+
+    private void markFlushed(List<PendingFlush> batch) {
+        for (PendingFlush pending : batch) {
+            pending.counter.markFlushed(pending.interested, pending.going);
+        }
+        lastFlushNanos = System.nanoTime();
+    }
+
+    private void rebase(List<EventCountsView> views) {
+        for (EventCountsView view : views) {
+            EventCounter counter = counters.get(view.getId());
+            if (counter != null) {
+                counter.rebase(view.getInterestedCount(), view.getGoingCount());
+            }
+        }
+    }
+
+    /**
+     * Flushes and re-reads the flushed base of every cached event, e.g. after the database
+     * counters were changed by someone else.
+     */
+    public void reload() {
+        flushLock.lock();
+        try {
+            flush();
+            refresh(new ArrayList<>(counters.keySet()));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Reads uncached events from the database and caches them; unknown events are left out.
+     */
+    private Map<Long, EventCounter> seed(Collection<Long> eventIds) {
+        seedLock.lock();
+        try {
+            Map<Long, EventCounter> seeded = new HashMap<>();
+            for (EventCountsView view : readCounts(eventIds)) {
+                seeded.put(view.getId(), counters.computeIfAbsent(view.getId(),
+                        id -> new EventCounter(view.getInterestedCount(), view.getGoingCount())));
+            }
+            return seeded;
+        } finally {
+            seedLock.unlock();
+        }
+    }
+
+    /**
+     * The flushed counts of events as the primary has them. With a replica configured, a
+     * read-only caller may be reading from it, so the counts are then read in a transaction of
+     * their own; not being read-only, it is served by the primary.
+     */
+    private List<EventCountsView> readCounts(Collection<Long> eventIds) {
+        if (replicated && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return transactionTemplate.execute(status -> eventRepository.findCountsByIdIn(eventIds));
+        }
+        return eventRepository.findCountsByIdIn(eventIds);
+    }
+
+    private double pendingEvents() {
+        return counters.values().stream().filter(EventCounter::hasPending).count();
+    }
+
+    private double pendingChanges() {
+        return counters.values().stream()
+                .mapToLong(c -> Math.abs(c.pendingInterested.sum()) + Math.abs(c.pendingGoing.sum()))
+                .sum();
+    }
+
+    private double flushLagNanos() {
+        return counters.values().stream().anyMatch(EventCounter::hasPending)
+                ? System.nanoTime() - lastFlushNanos
+                : 0;
+    }
+
+    private static final class PendingFlush {
+        final Long eventId;
+        final EventCounter counter;
+        final long interested;
+        final long going;
+
+        PendingFlush(Long eventId, EventCounter counter, long interested, long going) {
+            this.eventId = eventId;
+            this.counter = counter;
+            this.interested = interested;
+            this.going = going;
+        }
+    }
+
+    /**
+     * Flushed base plus pending deltas. Writers only touch the adders; the lock is taken
+     * exclusively when a flushed delta moves into the base, and optimistically by readers.
+     */
+    private static final class EventCounter {
+        private final StampedLock lock = new StampedLock();
+        private final LongAdder pendingInterested = new LongAdder();
+        private final LongAdder pendingGoing = new LongAdder();
+        private long baseInterested;
+        private long baseGoing;
+
+        EventCounter(long interested, long going) {
+            this.baseInterested = interested;
+            this.baseGoing = going;
+        }
+
+        void add(long interested, long going) {
+            if (interested != 0) {
+                pendingInterested.add(interested);
+            }
+            if (going != 0) {
+                pendingGoing.add(going);
+            }
+        }
+
+        boolean hasPending() {
+            return pendingInterested.sum() != 0 || pendingGoing.sum() != 0;
+        }
+
+        ParticipationCountsDto snapshot() {
+            long stamp = lock.tryOptimisticRead();
+            long interested = baseInterested + pendingInterested.sum();
+            long going = baseGoing + pendingGoing.sum();
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    interested = baseInterested + pendingInterested.sum();
+                    going = baseGoing + pendingGoing.sum();
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return new ParticipationCountsDto(Math.max(0, interested), Math.max(0, going));
+        }
+
+        void markFlushed(long interested, long going) {
+            long stamp = lock.writeLock();
+            try {
+                pendingInterested.add(-interested);
+                pendingGoing.add(-going);
+                baseInterested += interested;
+                baseGoing += going;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void rebase(long interested, long going) {
+            long stamp = lock.writeLock();
+            try {
+                baseInterested = interested;
+                baseGoing = going;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.eventexplorer.service;
+
+import java.util.List;
+
+/**
+ * Published by {@link ParticipationCountReconciler} in its transaction when it rewrote the
+ * counters of some events, so other instances can re-read them.
+ */
+public class ParticipationCountsRepaired {
+
+    private final List<Long> eventIds;
+
+    public ParticipationCountsRepaired(List<Long> eventIds) {
+        this.eventIds = List.copyOf(eventIds);
+    }
+
+    public List<Long> getEventIds() {
+        return eventIds;
+    }
+}
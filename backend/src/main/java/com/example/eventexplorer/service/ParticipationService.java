@@ -1,5 +1,6 @@
 package com.example.eventexplorer.service;
 
+import com.example.eventexplorer.dto.ParticipationChangeRequest;
 import com.example.eventexplorer.dto.ParticipationCountsDto;
 import com.example.eventexplorer.dto.ParticipationRequest;
 import com.example.eventexplorer.model.User;
@@ -8,68 +9,228 @@ import com.example.eventexplorer.model.EventParticipation;
 import com.example.eventexplorer.model.ParticipationStatus;
 import com.example.eventexplorer.repository.EventParticipationRepository;
 import com.example.eventexplorer.repository.EventRepository;
+import com.example.eventexplorer.repository.ParticipationUpsertView;
 import com.example.eventexplorer.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 @Transactional
 public class ParticipationService {
 
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final EventParticipationRepository participationRepository;
+    private final ParticipationCounterStore counterStore;
+    private final UserCache userCache;
+    private final ParticipationStatusIndex statusIndex;
+    private final ObjectProvider<ParticipationWriteBehind> writeBehind;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     public ParticipationService(EventRepository eventRepository,
                                 UserRepository userRepository,
-                                EventParticipationRepository participationRepository) {
+                                EventParticipationRepository participationRepository,
+                                ParticipationCounterStore counterStore,
+                                UserCache userCache,
+                                ParticipationStatusIndex statusIndex,
+                                ObjectProvider<ParticipationWriteBehind> writeBehind,
+                                ApplicationEventPublisher eventPublisher,
+                                EntityManager entityManager) {
         this.eventRepository = eventRepository;
         this.userRepository = userRepository;
         this.participationRepository = participationRepository;
+        this.counterStore = counterStore;
+        this.userCache = userCache;
+        this.statusIndex = statusIndex;
+        this.writeBehind = writeBehind;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
     }
 
-    public void markParticipation(Long eventId, String username, ParticipationRequest request) {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new IllegalArgumentException("Event not found: " + eventId));
+    /**
+     * Sets the user's status in one statement. The event is not looked up first: a missing one
+     * fails the foreign key, reported as {@link IllegalArgumentException}.
+     */
+    public void markParticipation(Long eventId, Long userId, ParticipationRequest request) {
+        counterStore.joinTransaction();
+        ParticipationStatus status = request.getStatus();
+        ParticipationUpsertView result = upsert(eventId, userId, status);
+        if (!result.isWritten()) {
+            // A concurrent request inserted the row first; running again locks and updates it
+            result = upsert(eventId, userId, status);
+        }
+        if (result.getPrevious() != status) {
+            eventPublisher.publishEvent(new ParticipationChange(eventId, userId, result.getPrevious(), status));
+        }
+    }
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+    public void removeParticipation(Long eventId, Long userId) {
+        counterStore.joinTransaction();
+        List<String> removed = participationRepository.deleteReturningStatus(userId, eventId);
+        if (!removed.isEmpty()) {
+            eventPublisher.publishEvent(new ParticipationChange(
+                    eventId, userId, ParticipationStatus.valueOf(removed.get(0)), null));
+        }
+    }
 
-        ParticipationStatus status = request.getStatus();
+    private ParticipationUpsertView upsert(Long eventId, Long userId, ParticipationStatus status) {
+        try {
+            return participationRepository.upsert(nextId(), userId, eventId, status.name());
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMostSpecificCause() instanceof SQLException sql
+                    && FOREIGN_KEY_VIOLATION.equals(sql.getSQLState())) {
+                throw new IllegalArgumentException("Event not found: " + eventId);
+            }
+            throw e;
+        }
+    }
 
-        EventParticipation participation = participationRepository
-                .findByEventAndUser(event, user)
-                .orElseGet(() -> {
-                    EventParticipation p = new EventParticipation();
-                    p.setEvent(event);
-                    p.setUser(user);
-                    return p;
-                });
-
-        participation.setStatus(status);
-        participationRepository.save(participation);
+    /**
+     * Draws an id from the entity's pooled generator, the same one {@code saveAll} uses, so the
+     * native insert neither collides with ids Hibernate has handed out nor spends a sequence
+     * block of its own. Unused when the upsert only updates.
+     */
+    private Long nextId() {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(EventParticipation.class).getGenerator();
+        return (Long) generator.generate(session, null);
     }
 
-    public void removeParticipation(Long eventId, String username){
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new IllegalArgumentException("Event not found: " + eventId));
+    /**
+     * Applies many participation changes for one user in a single transaction.
+     * When an event appears more than once the last change wins; a {@code null} status removes.
+     */
+    public void applyParticipations(String username, List<ParticipationChangeRequest> changes) {
+        counterStore.joinTransaction();
+        Map<Long, ParticipationStatus> wanted = new TreeMap<>();
+        for (ParticipationChangeRequest change : changes) {
+            wanted.put(change.getEventId(), change.getStatus());
+        }
+
+        Map<Long, Event> events = findEvents(wanted.keySet());
+        for (Long eventId : wanted.keySet()) {
+            if (!events.containsKey(eventId)) {
+                throw new IllegalArgumentException("Event not found: " + eventId);
+            }
+        }
+        apply(resolveUser(username), wanted, events);
+    }
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+    /**
+     * Applies queued changes of many users, keyed by user id and then event id, in a single
+     * transaction. Changes for events deleted since they were queued are dropped.
+     */
+    public void applyQueued(Map<Long, Map<Long, ParticipationStatus>> changesByUser) {
+        counterStore.joinTransaction();
+        Set<Long> eventIds = new HashSet<>();
+        changesByUser.values().forEach(changes -> eventIds.addAll(changes.keySet()));
+        Map<Long, Event> events = findEvents(eventIds);
+
+        // Users and events in id order, so concurrent writers take row locks in the same order
+        new TreeMap<>(changesByUser).forEach((userId, changes) -> {
+            Map<Long, ParticipationStatus> wanted = new TreeMap<>(changes);
+            wanted.keySet().retainAll(events.keySet());
+            if (!wanted.isEmpty()) {
+                apply(userRepository.getReferenceById(userId), wanted, events);
+            }
+        });
+    }
 
-        participationRepository.findByEventAndUser(event, user)
-                .ifPresent(participationRepository::delete);
+    /**
+     * Moves one user's rows to the wanted statuses, {@code null} removing. New rows take ids
+     * from the pooled sequence, so inserts and updates go out as JDBC batches.
+     */
+    private void apply(User user, Map<Long, ParticipationStatus> wanted, Map<Long, Event> events) {
+        Map<Long, EventParticipation> existing = participationRepository
+                .findForUpdateByUserAndEventIds(user, wanted.keySet()).stream()
+                .collect(Collectors.toMap(p -> p.getEvent().getId(), Function.identity()));
+
+        List<EventParticipation> inserts = new ArrayList<>();
+        List<EventParticipation> deletes = new ArrayList<>();
+        List<ParticipationChange> published = new ArrayList<>();
+        wanted.forEach((eventId, status) -> {
+            EventParticipation participation = existing.get(eventId);
+            ParticipationStatus previous = participation != null ? participation.getStatus() : null;
+            if (previous == status) {
+                return;
+            }
+            if (status == null) {
+                deletes.add(participation);
+            } else if (participation == null) {
+                EventParticipation p = new EventParticipation();
+                p.setEvent(events.get(eventId));
+                p.setUser(user);
+                p.setStatus(status);
+                inserts.add(p);
+            } else {
+                // Managed entity; the update is flushed with the rest of the batch
+                participation.setStatus(status);
+            }
+            published.add(new ParticipationChange(eventId, user.getId(), previous, status));
+        });
+
+        participationRepository.saveAll(inserts);
+        participationRepository.deleteAll(deletes);
+        published.forEach(eventPublisher::publishEvent);
+    }
+
+    private Map<Long, Event> findEvents(Collection<Long> ids) {
+        return eventRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
     }
 
     @Transactional(readOnly = true)
     public ParticipationCountsDto getParticipationCounts(Long eventId) {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new IllegalArgumentException("Event not found: " + eventId));
+        return counterStore.get(eventId);
+    }
 
-        long interested = participationRepository.countByEventAndStatus(event, ParticipationStatus.INTERESTED);
-        long going = participationRepository.countByEventAndStatus(event, ParticipationStatus.GOING);
+    /**
+     * The caller's own statuses by event id, to be overlaid on the shared catalog.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ParticipationStatus> getMyStatuses(String username) {
+        CachedUser user = userCache.get(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+        return getStatuses(user.getId());
+    }
 
-        return new ParticipationCountsDto(interested, going);
+    /**
+     * A user's statuses by event id, including changes still queued for write-behind.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ParticipationStatus> getStatuses(Long userId) {
+        Map<Long, ParticipationStatus> statuses = statusIndex.statusesOf(userId);
+        ParticipationWriteBehind writeBehind = this.writeBehind.getIfAvailable();
+        return writeBehind != null ? writeBehind.overlay(userId, statuses) : statuses;
     }
-}
 
+    /**
+     * Reference to the user row by cached id, without querying the users table.
+     */
+    private User resolveUser(String username) {
+        CachedUser user = userCache.get(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+        return userRepository.getReferenceById(user.getId());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.model.ParticipationStatus;
+import com.example.eventexplorer.repository.EventParticipationRepository;
+import com.example.eventexplorer.repository.EventStatusView;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user eventId to {@link ParticipationStatus} maps, loaded with one query on first use
+ * and then kept current from committed {@link ParticipationChange}s, so the status overlay
+ * of a catalog response needs no query. Users idle for the TTL are dropped; statistics are
+ * published as the {@code cache.*} metrics with {@code cache=participation-statuses}.
+ *
+ * <p>A miss is loaded by the caller outside the cache's locks, behind an incomplete future
+ * that concurrent callers for the same user wait on, so the query never runs inside a map
+ * compute. A change committing while that load runs drops the future instead of waiting for
+ * it, so a load racing a commit is never kept.
+ */
+@Component
+public class ParticipationStatusIndex {
+
+    private final EventParticipationRepository participationRepository;
+    private final AsyncCache<Long, Map<Long, ParticipationStatus>> cache;
+
+    public ParticipationStatusIndex(EventParticipationRepository participationRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.participation.statuses.max-users:10000}") long maxUsers,
+                                    @Value("${app.participation.statuses.ttl:PT10M}") Duration ttl) {
+        this.participationRepository = participationRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "participation-statuses");
+    }
+
+    /**
+     * The user's statuses by event id; a read-only view that follows later changes.
+     */
+    public Map<Long, ParticipationStatus> statusesOf(Long userId) {
+        CompletableFuture<Map<Long, ParticipationStatus>> statuses = cache.getIfPresent(userId);
+        if (statuses == null) {
+            CompletableFuture<Map<Long, ParticipationStatus>> loading = new CompletableFuture<>();
+            statuses = cache.asMap().putIfAbsent(userId, loading);
+            if (statuses == null) {
+                load(userId, loading);
+                statuses = loading;
+            }
+        }
+        return Collections.unmodifiableMap(statuses.join());
+    }
+
+    private void load(Long userId, CompletableFuture<Map<Long, ParticipationStatus>> loading) {
+        try {
+            Map<Long, ParticipationStatus> statuses = new ConcurrentHashMap<>();
+            for (EventStatusView view : participationRepository.findStatusesByUserId(userId)) {
+                statuses.put(view.getEventId(), view.getStatus());
+            }
+            loading.complete(statuses);
+        } catch (RuntimeException e) {
+            cache.asMap().remove(userId, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // The loaded map if the load is done, otherwise drops the entry and returns null
+    private Map<Long, ParticipationStatus> loadedOrEvict(Long userId,
+                                                         CompletableFuture<Map<Long, ParticipationStatus>> statuses) {
+        if (statuses.isDone() && !statuses.isCompletedExceptionally()) {
+            return statuses.join();
+        }
+        cache.asMap().remove(userId, statuses);
+        return null;
+    }
+
+    @TransactionalEventListener
+    public void onParticipationChange(ParticipationChange change) {
+        CompletableFuture<Map<Long, ParticipationStatus>> future = cache.asMap().get(change.getUserId());
+        Map<Long, ParticipationStatus> statuses = future == null ? null : loadedOrEvict(change.getUserId(), future);
+        if (statuses == null) {
+            return;
+        }
+        if (change.getCurrent() == null) {
+            statuses.remove(change.getEventId());
+        } else {
+            statuses.put(change.getEventId(), change.getCurrent());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onEventChange(EventChange change) {
+        // Deleting an event publishes no ParticipationChange for participations removed with it
+        if (change.getType() == EventChange.Type.DELETED) {
+            cache.asMap().forEach((userId, future) -> {
+                Map<Long, ParticipationStatus> statuses = loadedOrEvict(userId, future);
+                if (statuses != null) {
+                    statuses.remove(change.getEventId());
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+}
@@ -0,0 +1,391 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.dto.ParticipationCountsDto;
+import com.example.eventexplorer.model.ParticipationStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional asynchronous mode for participation changes, single and batched. A change is
+ * validated, queued in memory and acknowledged; repeated changes for the same (user, event)
+ * collapse into the latest one. A flusher thread writes the queue through
+ * {@link ParticipationService#applyQueued} once {@code batch-size} changes are pending or
+ * every {@code interval}, whichever comes first. While it is enabled every participation
+ * write goes through the queue, so the flusher is the only writer and a batch cannot be
+ * overtaken by older queued changes.
+ *
+ * <p>Queued changes stay visible to their author through {@link #overlay} until they are
+ * committed, and the catalog version is bumped on enqueue so no ETag answers 304 over them.
+ * Other users see the change once it is flushed. The queue holds at most {@code capacity}
+ * distinct (user, event) pairs; beyond that {@link #submit} fails with
+ * {@link IllegalStateException}.
+ *
+ * <p>A user whose changes fail to write is retried with a doubling delay and only dropped,
+ * with a warning and a count, after {@code max-attempts}. When the database cannot be reached
+ * at all the whole queue is held, with the same doubling delay, until it can.
+ */
+@Component
+@ConditionalOnProperty(value = "app.participation.write-behind.enabled", havingValue = "true")
+public class ParticipationWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticipationWriteBehind.class);
+
+    private final ParticipationService participationService;
+    private final ParticipationCounterStore counterStore;
+    private final CatalogVersion catalogVersion;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration interval;
+    private final int maxAttempts;
+
+    // user id -> event id -> latest queued change
+    private final Map<Long, Map<Long, Pending>> pending = new ConcurrentHashMap<>();
+    // user id -> failed writes so far; the user's changes wait until the retry is due
+    private final Map<Long, Retry> retries = new ConcurrentHashMap<>();
+    private volatile Retry outage;
+    private final AtomicInteger size = new AtomicInteger();
+    // Not a monitor: the flusher does JDBC, which must not pin a virtual thread's carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition wake = lock.newCondition();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final Counter coalesced;
+    private final Counter rejected;
+    private final Counter dropped;
+    private final Timer flushTimer;
+
+    public ParticipationWriteBehind(ParticipationService participationService,
+                                    ParticipationCounterStore counterStore,
+                                    CatalogVersion catalogVersion,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.participation.write-behind.capacity:50000}") int capacity,
+                                    @Value("${app.participation.write-behind.batch-size:500}") int batchSize,
+                                    @Value("${app.participation.write-behind.interval:PT0.2S}") Duration interval,
+                                    @Value("${app.participation.write-behind.max-attempts:5}") int maxAttempts) {
+        this.participationService = participationService;
+        this.counterStore = counterStore;
+        this.catalogVersion = catalogVersion;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.interval = interval;
+        this.maxAttempts = maxAttempts;
+        this.coalesced = Counter.builder("participation.write-behind.coalesced")
+                .description("Queued changes replaced by a later change for the same user and event")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("participation.write-behind.rejected")
+                .description("Changes refused because the queue was full")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("participation.write-behind.dropped")
+                .description("Queued changes discarded after failing max-attempts writes")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("participation.write-behind.flush").register(meterRegistry);
+        Gauge.builder("participation.write-behind.pending", size, AtomicInteger::get)
+                .description("Queued changes not yet written to the database")
+                .register(meterRegistry);
+        this.flusher = new Thread(this::run, "participation-write-behind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues a change; a {@code null} status removes the participation.
+     *
+     * @throws IllegalArgumentException when the event does not exist
+     * @throws IllegalStateException when the queue is full
+     */
+    public void submit(Long userId, Long eventId, ParticipationStatus status) {
+        // Throws for unknown events; known ones are answered from memory
+        counterStore.get(eventId);
+        enqueue(userId, Collections.singletonMap(eventId, status));
+    }
+
+    /**
+     * Queues a user's changes by event id, all of them or none; {@code null} statuses remove.
+     *
+     * @throws IllegalArgumentException when one of the events does not exist
+     * @throws IllegalStateException when the queue has no room for all of them
+     */
+    public void submitAll(Long userId, Map<Long, ParticipationStatus> changes) {
+        Map<Long, ParticipationCountsDto> known = counterStore.getAll(changes.keySet());
+        for (Long eventId : changes.keySet()) {
+            if (!known.containsKey(eventId)) {
+                throw new IllegalArgumentException("Event not found: " + eventId);
+            }
+        }
+        enqueue(userId, changes);
+    }
+
+    private void enqueue(Long userId, Map<Long, ParticipationStatus> changes) {
+        boolean[] accepted = {true};
+        pending.compute(userId, (id, current) -> {
+            Map<Long, Pending> queued = current != null ? current : new ConcurrentHashMap<>();
+            int added = 0;
+            for (Long eventId : changes.keySet()) {
+                if (!queued.containsKey(eventId)) {
+                    added++;
+                }
+            }
+            if (size.addAndGet(added) > capacity) {
+                size.addAndGet(-added);
+                accepted[0] = false;
+            } else {
+                changes.forEach((eventId, status) -> {
+                    if (queued.put(eventId, new Pending(status)) != null) {
+                        coalesced.increment();
+                    }
+                });
+            }
+            return queued.isEmpty() ? null : queued;
+        });
+        if (!accepted[0]) {
+            rejected.increment();
+            throw new IllegalStateException("Too many pending participation changes");
+        }
+
+        changes.keySet().forEach(catalogVersion::bumpEvent);
+        if (size.get() >= batchSize) {
+            signal();
+        }
+    }
+
+    /**
+     * The committed statuses with the user's queued changes applied on top.
+     */
+    public Map<Long, ParticipationStatus> overlay(Long userId, Map<Long, ParticipationStatus> committed) {
+        Map<Long, Pending> changes = pending.get(userId);
+        if (changes == null || changes.isEmpty()) {
+            return committed;
+        }
+        Map<Long, ParticipationStatus> merged = new HashMap<>(committed);
+        changes.forEach((eventId, change) -> {
+            if (change.status() == null) {
+                merged.remove(eventId);
+            } else {
+                merged.put(eventId, change.status());
+            }
+        });
+        return merged;
+    }
+
+    private void run() {
+        boolean progressed = false;
+        while (running) {
+            lock.lock();
+            try {
+                // A full queue is flushed back to back, unless everything in it is waiting to retry
+                if (!progressed || size.get() < batchSize) {
+                    wake.await(interval.toNanos(), TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                progressed = flush();
+            } catch (RuntimeException e) {
+                progressed = false;
+                log.warn("Participation write-behind flush failed", e);
+            }
+        }
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            wake.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes up to one batch of the users that are not waiting to retry. Entries stay queued,
+     * and so visible to {@link #overlay}, until their write commits; a change queued meanwhile
+     * for the same pair is kept for the next run. Once shutting down, retries are not waited for.
+     *
+     * @return whether any user's changes were written, retried or dropped
+     */
+    boolean flush() {
+        long now = System.nanoTime();
+        if (running && outage != null && !outage.isDue(now)) {
+            return false;
+        }
+        Map<Long, Map<Long, Pending>> batch = new HashMap<>();
+        int count = 0;
+        for (Map.Entry<Long, Map<Long, Pending>> entry : pending.entrySet()) {
+            Retry retry = retries.get(entry.getKey());
+            if (running && retry != null && !retry.isDue(now)) {
+                continue;
+            }
+            Map<Long, Pending> changes = new HashMap<>(entry.getValue());
+            batch.put(entry.getKey(), changes);
+            count += changes.size();
+            if (count >= batchSize) {
+                break;
+            }
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        try {
+            flushTimer.record(() -> participationService.applyQueued(statuses(batch)));
+        } catch (RuntimeException e) {
+            if (unavailable(e)) {
+                return false;
+            }
+            if (batch.size() == 1) {
+                batch.forEach((userId, changes) -> failed(userId, changes, e));
+                return true;
+            }
+            // One user's rows can fail the whole batch; retry user by user to isolate them
+            log.warn("Participation batch of {} changes failed, retrying per user: {}", count, e.toString());
+            return flushPerUser(batch);
+        }
+        written(batch);
+        return true;
+    }
+
+    /**
+     * Writes each user's changes in its own transaction; failing users are retried later.
+     * Stops, keeping the rest queued, once the database turns out to be unavailable.
+     */
+    private boolean flushPerUser(Map<Long, Map<Long, Pending>> batch) {
+        boolean progressed = false;
+        for (Map.Entry<Long, Map<Long, Pending>> entry : batch.entrySet()) {
+            try {
+                participationService.applyQueued(statuses(Map.of(entry.getKey(), entry.getValue())));
+                written(Map.of(entry.getKey(), entry.getValue()));
+            } catch (RuntimeException e) {
+                if (unavailable(e)) {
+                    return progressed;
+                }
+                failed(entry.getKey(), entry.getValue(), e);
+            }
+            progressed = true;
+        }
+        return progressed;
+    }
+
+    private void written(Map<Long, Map<Long, Pending>> batch) {
+        if (outage != null) {
+            log.info("Participation write-behind is writing again after {} failed attempts", outage.attempts());
+            outage = null;
+        }
+        batch.forEach((userId, changes) -> {
+            retries.remove(userId);
+            dequeue(userId, changes);
+        });
+    }
+
+    /**
+     * A user's write failed, e.g. on a unique-key race with another instance: the next attempt
+     * re-reads the rows it found and usually succeeds. After {@code max-attempts} the changes
+     * are dropped.
+     */
+    private void failed(Long userId, Map<Long, Pending> changes, RuntimeException e) {
+        Retry retry = Retry.after(retries.get(userId), interval);
+        if (retry.attempts() < maxAttempts) {
+            retries.put(userId, retry);
+            log.warn("Writing {} queued participation changes of user {} failed (attempt {} of {}), retrying: {}",
+                    changes.size(), userId, retry.attempts(), maxAttempts, e.toString());
+            return;
+        }
+        log.warn("Dropping {} queued participation changes of user {} after {} failed attempts",
+                changes.size(), userId, retry.attempts(), e);
+        dropped.increment(changes.size());
+        retries.remove(userId);
+        dequeue(userId, changes);
+    }
+
+    /**
+     * Whether the failure is the database being out of reach rather than the rows; if so the
+     * whole queue waits, and the outage is logged once rather than on every attempt.
+     */
+    private boolean unavailable(RuntimeException e) {
+        if (!(e instanceof CannotCreateTransactionException || e instanceof DataAccessResourceFailureException)) {
+            return false;
+        }
+        if (outage == null) {
+            log.warn("Database unavailable, holding {} queued participation changes: {}", size.get(), e.toString());
+        }
+        outage = Retry.after(outage, interval);
+        return true;
+    }
+
+    private void dequeue(Long userId, Map<Long, Pending> written) {
+        pending.computeIfPresent(userId, (id, queued) -> {
+            written.forEach((eventId, change) -> {
+                // Identity: an equal but newer change must still be written
+                if (queued.get(eventId) == change && queued.remove(eventId) != null) {
+                    size.decrementAndGet();
+                }
+            });
+            return queued.isEmpty() ? null : queued;
+        });
+    }
+
+    private static Map<Long, Map<Long, ParticipationStatus>> statuses(Map<Long, Map<Long, Pending>> batch) {
+        Map<Long, Map<Long, ParticipationStatus>> statuses = new HashMap<>();
+        batch.forEach((userId, changes) -> {
+            Map<Long, ParticipationStatus> byEvent = new HashMap<>();
+            changes.forEach((eventId, change) -> byEvent.put(eventId, change.status()));
+            statuses.put(userId, byEvent);
+        });
+        return statuses;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        signal();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        // Drain what is left while the database is still available
+        while (size.get() > 0 && flush()) {
+            log.info("Flushed queued participation changes on shutdown, {} left", size.get());
+        }
+    }
+
+    private record Pending(ParticipationStatus status) {
+    }
+
+    /**
+     * Failed attempts so far and when the next one is due: the interval doubled per failure,
+     * at most 64 times the interval.
+     */
+    private record Retry(int attempts, long dueNanos) {
+
+        static Retry after(Retry previous, Duration interval) {
+            int attempts = previous != null ? previous.attempts() + 1 : 1;
+            long delay = interval.toNanos() << Math.min(attempts, 6);
+            return new Retry(attempts, System.nanoTime() + delay);
+        }
+
+        boolean isDue(long now) {
+            return now - dueNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded username to {@link CachedUser} cache shared by authentication and the services.
+ * Entries expire after a TTL and are evicted by size; unknown usernames are not cached.
+ * Hit/miss statistics are published as the {@code cache.*} metrics with {@code cache=users}.
+ * Entries are invalidated once a {@link UserChange} commits.
+ *
+ * <p>A miss is loaded by the caller outside the cache's locks: it publishes an incomplete
+ * future that concurrent callers for the same name wait on, so the lookup never runs inside
+ * a map compute and a virtual thread does not pin its carrier on the query. Invalidating the
+ * name while it loads drops the future, so the result of that load is not cached.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final AsyncCache<String, CachedUser> cache;
+
+    public UserCache(UserRepository userRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.users.cache.max-size:10000}") long maxSize,
+                     @Value("${app.users.cache.ttl:PT5M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    public Optional<CachedUser> get(String username) {
+        CompletableFuture<CachedUser> user = cache.getIfPresent(username);
+        if (user == null) {
+            CompletableFuture<CachedUser> loading = new CompletableFuture<>();
+            user = cache.asMap().putIfAbsent(username, loading);
+            if (user == null) {
+                load(username, loading);
+                user = loading;
+            }
+        }
+        // Unknown usernames complete with null, which the cache does not keep
+        return Optional.ofNullable(user.join());
+    }
+
+    private void load(String username, CompletableFuture<CachedUser> loading) {
+        try {
+            loading.complete(userRepository.findByUsername(username).map(CachedUser::of).orElse(null));
+        } catch (RuntimeException e) {
+            cache.asMap().remove(username, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @TransactionalEventListener
+    public void onUserChange(UserChange change) {
+        invalidate(change.getUsername());
+    }
+
+    public void invalidate(String username) {
+        cache.synchronous().invalidate(username);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.eventexplorer.service;
+
+/**
+ * Published by {@link UserService} when a user is created or their cached columns change.
+ */
+public class UserChange {
+
+    private final Long userId;
+    private final String username;
+
+    public UserChange(Long userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
@@ -4,6 +4,7 @@ import com.example.eventexplorer.dto.RegisterRequest;
 import com.example.eventexplorer.model.User;
 import com.example.eventexplorer.model.Role;
 import com.example.eventexplorer.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,10 +15,17 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository,
+                       PasswordEncoder passwordEncoder,
+                       UserCache userCache,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
+        this.eventPublisher = eventPublisher;
     }
 
     public User registerUser(RegisterRequest request) {
@@ -30,11 +38,25 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         user.setRole(Role.USER); // Only USER role for registration, ADMIN is pre-created
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChange(saved.getId(), saved.getUsername()));
+        return saved;
     }
 
-    public User findByUsername(String username) {
-        return userRepository.findByUsername(username)
+    public CachedUser findByUsername(String username) {
+        return userCache.get(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
     }
+
+    /**
+     * Changes a user's role. Bearer tokens issued before the change keep the old role until they expire.
+     */
+    public CachedUser changeRole(String username, Role role) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+        user.setRole(role);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChange(saved.getId(), saved.getUsername()));
+        return CachedUser.of(saved);
+    }
 }
@@ -0,0 +1,143 @@
+package com.example.eventexplorer.metrics;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.TestExecutionListener;
+import org.springframework.test.context.TestExecutionListeners;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Calls every {@link QueryBudget} endpoint, anonymously and as a user, against the real
+ * application on an embedded PostgreSQL, and fails if any of them ran more statements than
+ * its budget allows.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.hibernate.ddl-auto=create",
+        "app.auth.token-secret=query-budget-test-secret",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN"})
+@DirtiesContext
+@TestExecutionListeners(listeners = QueryBudgetTest.StopPostgres.class,
+        mergeMode = TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS)
+class QueryBudgetTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private QueryBudgetInterceptor queryBudgetInterceptor;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    /**
+     * Stops the database once the context is closed, so nothing scheduled in the context runs
+     * against a stopped database. Ordered before the {@code DirtiesContext} listener, so its
+     * {@code afterTestClass} runs after that listener's.
+     */
+    static class StopPostgres implements TestExecutionListener, Ordered {
+
+        @Override
+        public void afterTestClass(TestContext testContext) throws IOException {
+            POSTGRES.close();
+        }
+
+        @Override
+        public int getOrder() {
+            return 2000;
+        }
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start embedded PostgreSQL", e);
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        for (int i = 1; i <= 3; i++) {
+            exchange(HttpMethod.POST, "/events", admin(), Map.of(
+                    "title", "Jazz night " + i,
+                    "description", "Live jazz in the old town",
+                    "date", "2030-0" + i + "-01T20:00:00",
+                    "location", "Skopje",
+                    "category", "Concert"));
+        }
+        exchange(HttpMethod.POST, "/api/auth/register", new HttpHeaders(),
+                Map.of("username", "budget", "password", "secret1"));
+    }
+
+    @Test
+    void endpointsStayWithinTheirQueryBudgets() {
+        List<QueryBudgetInterceptor.Violation> before = queryBudgetInterceptor.getViolations();
+        HttpHeaders anonymous = new HttpHeaders();
+        HttpHeaders user = new HttpHeaders();
+        user.setBasicAuth("budget", "secret1");
+
+        for (HttpHeaders caller : new HttpHeaders[] {anonymous, user}) {
+            exchange(HttpMethod.GET, "/events", caller, null);
+            exchange(HttpMethod.GET, "/events?category=Concert&limit=2", caller, null);
+            exchange(HttpMethod.GET, "/events/1", caller, null);
+            exchange(HttpMethod.GET, "/events/search?q=jazz", caller, null);
+            exchange(HttpMethod.GET, "/events/upcoming", caller, null);
+            exchange(HttpMethod.GET, "/events/1/participation", caller, null);
+        }
+        exchange(HttpMethod.POST, "/events/1/participation", user, Map.of("status", "GOING"));
+        exchange(HttpMethod.POST, "/events/participation/batch", user, Map.of("changes", new Object[] {
+                Map.of("eventId", 2, "status", "INTERESTED"),
+                Map.of("eventId", 3, "status", "GOING")}));
+        exchange(HttpMethod.GET, "/events/participation/mine", user, null);
+        exchange(HttpMethod.DELETE, "/events/1/participation", user, null);
+        exchange(HttpMethod.GET, "/api/auth/me", user, null);
+
+        // Any new violation is appended, so the list changes even once old ones are dropped
+        assertThat(queryBudgetInterceptor.getViolations()).as("requests over their query budget")
+                .isEqualTo(before);
+    }
+
+    private static HttpHeaders admin() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBasicAuth("admin", "admin");
+        return headers;
+    }
+
+    private void exchange(HttpMethod method, String path, HttpHeaders headers, Object body) {
+        HttpHeaders request = new HttpHeaders();
+        request.addAll(headers);
+        if (body != null) {
+            request.setContentType(MediaType.APPLICATION_JSON);
+        }
+        ResponseEntity<String> response = rest.exchange(path, method, new HttpEntity<>(body, request), String.class);
+        assertThat(response.getStatusCode().is2xxSuccessful())
+                .as("%s %s answered %s: %s", method, path, response.getStatusCode(), response.getBody())
+                .isTrue();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.eventexplorer.search;
+
+import com.example.eventexplorer.model.Event;
+import com.example.eventexplorer.repository.EventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventSearchIndexTest {
+
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final EventSearchIndex index = new EventSearchIndex(eventRepository, new SimpleMeterRegistry());
+
+    @Test
+    void searchesTheDatabaseUntilTheIndexIsBuilt() {
+        when(eventRepository.searchIds("jazz sko", 5)).thenReturn(List.of(2L));
+
+        assertThat(index.search("Jazz, Skó", 5)).containsExactly(2L);
+    }
+
+    @Test
+    void searchesTheIndexOnceBuilt() {
+        when(eventRepository.findAll(any(Sort.class))).thenReturn(List.of(
+                event(1L, "Jazz night", "Skopje"),
+                event(2L, "Jazz brunch", "Ohrid"),
+                event(3L, "Opera", "Skopje")));
+        index.rebuild();
+
+        assertThat(index.search("jazz sko", 5)).containsExactly(1L);
+        verify(eventRepository, never()).searchIds(anyString(), anyInt());
+    }
+
+    private static Event event(Long id, String title, String location) {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle(title);
+        event.setDescription(title);
+        event.setLocation(location);
+        event.setCategory("Concert");
+        return event;
+    }
+}
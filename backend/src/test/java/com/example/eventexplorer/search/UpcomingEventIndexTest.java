@@ -0,0 +1,89 @@
+package com.example.eventexplorer.search;
+
+import com.example.eventexplorer.model.Event;
+import com.example.eventexplorer.repository.EventRepository;
+import com.example.eventexplorer.service.EventChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class UpcomingEventIndexTest {
+
+    private static final LocalDateTime NEXT_YEAR = LocalDateTime.now().plusYears(1).truncatedTo(ChronoUnit.DAYS);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UpcomingEventIndex index = new UpcomingEventIndex(mock(EventRepository.class), meterRegistry);
+
+    @Test
+    void findsEventsInDateThenIdOrder() {
+        save(3L, NEXT_YEAR.plusDays(1), "Concert");
+        save(2L, NEXT_YEAR, "Theater");
+        save(1L, NEXT_YEAR, "Concert");
+        save(4L, NEXT_YEAR.plusDays(2), "Concert");
+
+        assertThat(index.find(null, null, null, 10)).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(index.find(null, null, "Concert", 10)).containsExactly(1L, 3L, 4L);
+        assertThat(index.find(null, null, "Concert", 2)).containsExactly(1L, 3L);
+        assertThat(index.find(NEXT_YEAR.plusDays(1), NEXT_YEAR.plusDays(2), null, 10)).containsExactly(3L);
+        assertThat(index.find(null, null, "Exhibition", 10)).isEmpty();
+    }
+
+    @Test
+    void updatesMoveAnEventAndChangeItsCategory() {
+        save(1L, NEXT_YEAR, "Concert");
+        save(2L, NEXT_YEAR.plusDays(1), "Concert");
+        save(3L, NEXT_YEAR.plusDays(2), "Theater");
+
+        save(1L, NEXT_YEAR.plusDays(3), "Theater");
+
+        assertThat(index.find(null, null, null, 10)).containsExactly(2L, 3L, 1L);
+        assertThat(index.find(null, null, "Concert", 10)).containsExactly(2L);
+        assertThat(index.find(null, null, "Theater", 10)).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void deletedAndPastEventsAreRemoved() {
+        save(1L, NEXT_YEAR, "Concert");
+        save(2L, NEXT_YEAR.plusDays(1), "Concert");
+        save(3L, NEXT_YEAR.plusDays(2), "Theater");
+
+        index.onEventChange(new EventChange(EventChange.Type.DELETED, 2L, null));
+        save(3L, LocalDateTime.now().minusDays(1), "Theater");
+
+        assertThat(index.find(null, null, null, 10)).containsExactly(1L);
+        assertThat(index.find(null, null, "Theater", 10)).isEmpty();
+        assertThat(indexed()).isEqualTo(1);
+    }
+
+    @Test
+    void prunesEventsOnceTheirDateHasPassed() throws InterruptedException {
+        LocalDateTime soon = LocalDateTime.now().plusNanos(200_000_000);
+        save(1L, soon, "Concert");
+        save(2L, NEXT_YEAR, "Concert");
+
+        Thread.sleep(ChronoUnit.MILLIS.between(LocalDateTime.now(), soon) + 50);
+
+        assertThat(index.find(null, null, null, 10)).containsExactly(2L);
+        assertThat(indexed()).isEqualTo(2);
+        index.prunePast();
+        assertThat(indexed()).isEqualTo(1);
+        assertThat(index.find(null, null, "Concert", 10)).containsExactly(2L);
+    }
+
+    private void save(Long id, LocalDateTime date, String category) {
+        Event event = new Event();
+        event.setId(id);
+        event.setDate(date);
+        event.setCategory(category);
+        index.onEventChange(new EventChange(EventChange.Type.UPDATED, id, event));
+    }
+
+    private double indexed() {
+        return meterRegistry.get("events.upcoming.indexed").gauge().value();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.eventexplorer.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        EventCursor cursor = new EventCursor(LocalDateTime.of(2030, 1, 31, 20, 15, 0, 123_000_000), 42L);
+
+        EventCursor decoded = EventCursor.decode(cursor.encode());
+
+        assertThat(decoded.getDate()).isEqualTo(cursor.getDate());
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void encodesAsUnpaddedUrlSafeBase64() {
+        String token = new EventCursor(LocalDateTime.of(2030, 1, 1, 0, 0), Long.MAX_VALUE).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsTokensThatAreNotBase64() {
+        assertThatThrownBy(() -> EventCursor.decode("2030-01-01T20:00|7"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "2030-01-01T20:00", "yesterday|7", "2030-01-01T20:00|seven", "2030-01-01T20:00|"})
+    void rejectsMalformedPositions(String raw) {
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> EventCursor.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
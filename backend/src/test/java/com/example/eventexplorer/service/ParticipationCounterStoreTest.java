@@ -0,0 +1,295 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.dto.ParticipationCountsDto;
+import com.example.eventexplorer.model.ParticipationStatus;
+import com.example.eventexplorer.repository.EventCountsView;
+import com.example.eventexplorer.repository.EventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ParticipationCounterStore} against an in-memory stand-in for the {@code events} count
+ * columns and a transaction manager that only drives synchronizations, so the store's locking
+ * and commit hooks run as in the application without a database.
+ */
+class ParticipationCounterStoreTest {
+
+    private static final Long EVENT = 1L;
+    private static final int WRITERS = 8;
+    private static final int CHANGES_PER_WRITER = 300;
+
+    private final CountColumns columns = new CountColumns();
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final SynchronizingTransactionManager transactionManager = new SynchronizingTransactionManager();
+    private final TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+
+    ParticipationCounterStoreTest() {
+        when(eventRepository.findCountsByIdIn(anyCollection()))
+                .thenAnswer(invocation -> columns.read(invocation.getArgument(0)));
+        when(eventRepository.adjustParticipationCounts(anyLong(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> columns.adjust(invocation.getArgument(0),
+                        invocation.getArgument(1), invocation.getArgument(2)));
+        columns.insert(EVENT, 0, 0);
+    }
+
+    @Test
+    void writeBehindLosesNoChangeToConcurrentFlushes() throws Exception {
+        ParticipationCounterStore store = store(false);
+        store.get(EVENT);
+
+        ParticipationCountsDto expected = runWriters(store, store::flush);
+        store.flush();
+
+        assertThat(columns.get(EVENT)).usingRecursiveComparison().isEqualTo(expected);
+        assertThat(store.get(EVENT)).usingRecursiveComparison().isEqualTo(expected);
+    }
+
+    @Test
+    void failedFlushKeepsDeltasPendingUntilRetried() {
+        ParticipationCounterStore store = store(false);
+        change(store, 1L, null, ParticipationStatus.GOING);
+        change(store, 2L, null, ParticipationStatus.INTERESTED);
+
+        columns.failNextAdjust();
+        store.flush();
+
+        assertThat(columns.get(EVENT)).usingRecursiveComparison().isEqualTo(new ParticipationCountsDto(0, 0));
+        assertThat(store.get(EVENT)).usingRecursiveComparison().isEqualTo(new ParticipationCountsDto(1, 1));
+
+        store.flush();
+        store.flush();
+
+        assertThat(columns.get(EVENT)).usingRecursiveComparison().isEqualTo(new ParticipationCountsDto(1, 1));
+        assertThat(store.get(EVENT)).usingRecursiveComparison().isEqualTo(new ParticipationCountsDto(1, 1));
+    }
+
+    @ParameterizedTest(name = "transactional={0}")
+    @ValueSource(booleans = {false, true})
+    void reloadRacingWritersEndsOnTheDatabaseCounts(boolean transactional) throws Exception {
+        ParticipationCounterStore store = store(transactional);
+        store.get(EVENT);
+
+        ParticipationCountsDto expected = runWriters(store, store::reload);
+        store.flush();
+
+        assertThat(columns.get(EVENT)).usingRecursiveComparison().isEqualTo(expected);
+        assertThat(store.get(EVENT)).usingRecursiveComparison().isEqualTo(expected);
+    }
+
+    @Test
+    void transactionalCountsAreWrittenJustBeforeCommit() {
+        ParticipationCounterStore store = store(true);
+        store.get(EVENT);
+
+        transactions.executeWithoutResult(status -> {
+            store.joinTransaction();
+            store.onParticipationChange(new ParticipationChange(EVENT, 1L, null, ParticipationStatus.GOING));
+            assertThat(columns.get(EVENT)).usingRecursiveComparison().isEqualTo(new ParticipationCountsDto(0, 0));
+        });
+
+        assertThat(columns.get(EVENT)).usingRecursiveComparison().isEqualTo(new ParticipationCountsDto(0, 1));
+        assertThat(store.get(EVENT)).usingRecursiveComparison().isEqualTo(new ParticipationCountsDto(0, 1));
+
+        // Nothing is left behind for a flush to write a second time
+        store.flush();
+        assertThat(columns.get(EVENT)).usingRecursiveComparison().isEqualTo(new ParticipationCountsDto(0, 1));
+    }
+
+    @Test
+    void transactionalCountsOfARolledBackChangeAreNeitherWrittenNorCached() {
+        ParticipationCounterStore store = store(true);
+        store.get(EVENT);
+
+        transactions.executeWithoutResult(status -> {
+            store.joinTransaction();
+            store.onParticipationChange(new ParticipationChange(EVENT, 1L, null, ParticipationStatus.GOING));
+            status.setRollbackOnly();
+        });
+
+        assertThat(columns.get(EVENT)).usingRecursiveComparison().isEqualTo(new ParticipationCountsDto(0, 0));
+        assertThat(store.get(EVENT)).usingRecursiveComparison().isEqualTo(new ParticipationCountsDto(0, 0));
+    }
+
+    private ParticipationCounterStore store(boolean transactional) {
+        return new ParticipationCounterStore(eventRepository, transactionManager, new SimpleMeterRegistry(),
+                "", transactional);
+    }
+
+    private void change(ParticipationCounterStore store, Long userId,
+                        ParticipationStatus previous, ParticipationStatus current) {
+        transactions.executeWithoutResult(status -> {
+            store.joinTransaction();
+            store.onParticipationChange(new ParticipationChange(EVENT, userId, previous, current));
+        });
+    }
+
+    /**
+     * Each writer marks its users going, moves every second one to interested and removes every
+     * fourth, while {@code background} runs in a loop; returns the counts that must result.
+     */
+    private ParticipationCountsDto runWriters(ParticipationCounterStore store, Runnable background)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + 1);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicBoolean writing = new AtomicBoolean(true);
+            AtomicInteger backgroundRuns = new AtomicInteger();
+            Future<?> loop = executor.submit(() -> {
+                while (writing.get()) {
+                    background.run();
+                    backgroundRuns.incrementAndGet();
+                }
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                long firstUser = (long) w * CHANGES_PER_WRITER;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < CHANGES_PER_WRITER; i++) {
+                        Long user = firstUser + i;
+                        change(store, user, null, ParticipationStatus.GOING);
+                        if (i % 2 == 0) {
+                            change(store, user, ParticipationStatus.GOING, ParticipationStatus.INTERESTED);
+                        }
+                        if (i % 4 == 0) {
+                            change(store, user, ParticipationStatus.INTERESTED, null);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            loop.get(30, TimeUnit.SECONDS);
+            assertThat(backgroundRuns).hasPositiveValue();
+        } finally {
+            executor.shutdownNow();
+        }
+        long perWriter = CHANGES_PER_WRITER;
+        long interested = WRITERS * (perWriter / 2 - perWriter / 4);
+        long going = WRITERS * (perWriter - perWriter / 2);
+        return new ParticipationCountsDto(interested, going);
+    }
+
+    /**
+     * The count columns of {@code events}: one atomic update per adjustment, as the database
+     * row lock gives.
+     */
+    private static final class CountColumns {
+
+        private final Map<Long, long[]> rows = new ConcurrentHashMap<>();
+        private final AtomicBoolean failNext = new AtomicBoolean();
+
+        void insert(Long eventId, long interested, long going) {
+            rows.put(eventId, new long[]{interested, going});
+        }
+
+        void failNextAdjust() {
+            failNext.set(true);
+        }
+
+        int adjust(Long eventId, long interested, long going) {
+            if (failNext.compareAndSet(true, false)) {
+                throw new DataAccessResourceFailureException("Connection refused");
+            }
+            long[] row = rows.get(eventId);
+            if (row == null) {
+                return 0;
+            }
+            synchronized (row) {
+                row[0] += interested;
+                row[1] += going;
+            }
+            return 1;
+        }
+
+        ParticipationCountsDto get(Long eventId) {
+            long[] row = rows.get(eventId);
+            synchronized (row) {
+                return new ParticipationCountsDto(row[0], row[1]);
+            }
+        }
+
+        List<EventCountsView> read(Collection<Long> eventIds) {
+            List<EventCountsView> views = new ArrayList<>();
+            for (Long eventId : eventIds) {
+                if (rows.containsKey(eventId)) {
+                    ParticipationCountsDto counts = get(eventId);
+                    views.add(new Counts(eventId, counts.getInterestedCount(), counts.getGoingCount()));
+                }
+            }
+            return views;
+        }
+    }
+
+    private record Counts(Long id, long interestedCount, long goingCount) implements EventCountsView {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public long getInterestedCount() {
+            return interestedCount;
+        }
+
+        @Override
+        public long getGoingCount() {
+            return goingCount;
+        }
+    }
+
+    /**
+     * Begins, commits and rolls back nothing, but runs transaction synchronizations like a real
+     * transaction manager does.
+     */
+    private static final class SynchronizingTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
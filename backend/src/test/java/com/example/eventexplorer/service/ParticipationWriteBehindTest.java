@@ -0,0 +1,223 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.dto.ParticipationCountsDto;
+import com.example.eventexplorer.model.ParticipationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ParticipationWriteBehind} with the service it writes through mocked. The interval is
+ * long enough that the flusher thread never runs on its own, so each test drives
+ * {@code flush()} itself; retries that would be due only much later are forced by shutting down.
+ */
+class ParticipationWriteBehindTest {
+
+    private static final Long USER = 7L;
+    private static final Long OTHER_USER = 8L;
+
+    private final ParticipationService participationService = mock(ParticipationService.class);
+    private final ParticipationCounterStore counterStore = mock(ParticipationCounterStore.class);
+    private final CatalogVersion catalogVersion = mock(CatalogVersion.class);
+    private ParticipationWriteBehind writeBehind;
+
+    ParticipationWriteBehindTest() {
+        when(counterStore.getAll(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, ParticipationCountsDto> known = new HashMap<>();
+            for (Object eventId : invocation.<Iterable<?>>getArgument(0)) {
+                if ((Long) eventId < 100) {
+                    known.put((Long) eventId, new ParticipationCountsDto(0, 0));
+                }
+            }
+            return known;
+        });
+    }
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        writeBehind.shutdown();
+    }
+
+    @Test
+    void laterChangesForTheSamePairReplaceEarlierOnes() {
+        writeBehind = writeBehind(100, 3);
+        writeBehind.submit(USER, 1L, ParticipationStatus.GOING);
+        writeBehind.submit(USER, 1L, ParticipationStatus.INTERESTED);
+        writeBehind.submit(USER, 2L, ParticipationStatus.GOING);
+        writeBehind.submit(USER, 1L, null);
+        Map<Long, ParticipationStatus> batch = new LinkedHashMap<>();
+        batch.put(2L, ParticipationStatus.INTERESTED);
+        batch.put(3L, ParticipationStatus.GOING);
+        writeBehind.submitAll(USER, batch);
+
+        assertThat(writeBehind.flush()).isTrue();
+
+        Map<Long, ParticipationStatus> expected = new HashMap<>();
+        expected.put(1L, null);
+        expected.put(2L, ParticipationStatus.INTERESTED);
+        expected.put(3L, ParticipationStatus.GOING);
+        assertThat(writtenBatches()).containsExactly(Map.of(USER, expected));
+        assertThat(writeBehind.flush()).isFalse();
+    }
+
+    @Test
+    void failedWriteIsRetriedAfterItsDelayWithoutHoldingUpOtherUsers() throws InterruptedException {
+        writeBehind = writeBehind(100, 3);
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .doNothing()
+                .when(participationService).applyQueued(Map.of(USER, Map.of(1L, ParticipationStatus.GOING)));
+        writeBehind.submit(USER, 1L, ParticipationStatus.GOING);
+
+        assertThat(writeBehind.flush()).isTrue();
+        // Waiting for its retry, so not attempted again yet, but still visible to its author
+        assertThat(writeBehind.flush()).isFalse();
+        assertThat(writeBehind.overlay(USER, Map.of())).containsEntry(1L, ParticipationStatus.GOING);
+
+        writeBehind.submit(OTHER_USER, 1L, ParticipationStatus.INTERESTED);
+        assertThat(writeBehind.flush()).isTrue();
+        verify(participationService).applyQueued(Map.of(OTHER_USER, Map.of(1L, ParticipationStatus.INTERESTED)));
+
+        // Shutting down drains without waiting for the retry delay
+        writeBehind.shutdown();
+
+        verify(participationService, times(2)).applyQueued(Map.of(USER, Map.of(1L, ParticipationStatus.GOING)));
+        assertThat(writeBehind.overlay(USER, Map.of())).isEmpty();
+    }
+
+    @Test
+    void changesAreDroppedAfterMaxAttempts() throws InterruptedException {
+        writeBehind = writeBehind(100, 2);
+        doThrow(new DataIntegrityViolationException("check constraint"))
+                .when(participationService).applyQueued(any());
+        writeBehind.submit(USER, 1L, ParticipationStatus.GOING);
+
+        writeBehind.shutdown();
+
+        verify(participationService, times(2)).applyQueued(any());
+        assertThat(writeBehind.overlay(USER, Map.of())).isEmpty();
+    }
+
+    @Test
+    void databaseOutageHoldsTheQueueWithoutCountingAttempts() throws InterruptedException {
+        writeBehind = writeBehind(100, 1);
+        doThrow(new CannotCreateTransactionException("Connection refused"))
+                .doNothing()
+                .when(participationService).applyQueued(any());
+        writeBehind.submit(USER, 1L, ParticipationStatus.GOING);
+
+        assertThat(writeBehind.flush()).isFalse();
+        assertThat(writeBehind.flush()).isFalse();
+        verify(participationService, times(1)).applyQueued(any());
+
+        writeBehind.shutdown();
+
+        verify(participationService, times(2)).applyQueued(any());
+    }
+
+    @Test
+    void rejectsChangesBeyondCapacityAllOrNone() {
+        writeBehind = writeBehind(2, 3);
+        writeBehind.submit(USER, 1L, ParticipationStatus.GOING);
+        writeBehind.submit(USER, 2L, ParticipationStatus.GOING);
+
+        assertThatThrownBy(() -> writeBehind.submit(OTHER_USER, 1L, ParticipationStatus.GOING))
+                .isInstanceOf(IllegalStateException.class);
+        Map<Long, ParticipationStatus> batch = new LinkedHashMap<>();
+        batch.put(1L, ParticipationStatus.INTERESTED);
+        batch.put(3L, ParticipationStatus.GOING);
+        assertThatThrownBy(() -> writeBehind.submitAll(USER, batch))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(writeBehind.overlay(USER, Map.of()))
+                .isEqualTo(Map.of(1L, ParticipationStatus.GOING, 2L, ParticipationStatus.GOING));
+
+        // Replacing a queued change takes no room
+        writeBehind.submit(USER, 1L, ParticipationStatus.INTERESTED);
+        assertThat(writeBehind.flush()).isTrue();
+        writeBehind.submit(OTHER_USER, 1L, ParticipationStatus.GOING);
+    }
+
+    @Test
+    void rejectsUnknownEventsBeforeQueueingAny() {
+        writeBehind = writeBehind(100, 3);
+        Map<Long, ParticipationStatus> batch = new LinkedHashMap<>();
+        batch.put(1L, ParticipationStatus.GOING);
+        batch.put(100L, ParticipationStatus.GOING);
+
+        assertThatThrownBy(() -> writeBehind.submitAll(USER, batch))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(writeBehind.overlay(USER, Map.of())).isEmpty();
+        assertThat(writeBehind.flush()).isFalse();
+    }
+
+    @Test
+    void overlayShowsQueuedChangesToTheirAuthorUntilWritten() {
+        writeBehind = writeBehind(100, 3);
+        doNothing().when(participationService).applyQueued(any());
+        Map<Long, ParticipationStatus> committed = Map.of(
+                1L, ParticipationStatus.GOING, 2L, ParticipationStatus.INTERESTED);
+        writeBehind.submit(USER, 1L, null);
+        writeBehind.submit(USER, 2L, ParticipationStatus.GOING);
+        writeBehind.submit(USER, 3L, ParticipationStatus.INTERESTED);
+
+        assertThat(writeBehind.overlay(USER, committed))
+                .isEqualTo(Map.of(2L, ParticipationStatus.GOING, 3L, ParticipationStatus.INTERESTED));
+        assertThat(writeBehind.overlay(OTHER_USER, committed)).isSameAs(committed);
+        verify(catalogVersion).bumpEvent(3L);
+
+        writeBehind.flush();
+
+        assertThat(writeBehind.overlay(USER, committed)).isSameAs(committed);
+    }
+
+    @Test
+    void changeQueuedDuringAWriteIsKeptForTheNextOne() {
+        writeBehind = writeBehind(100, 3);
+        writeBehind.submit(USER, 1L, ParticipationStatus.GOING);
+        // The same status queued again while the first write runs must still be written
+        doAnswer(invocation -> {
+            writeBehind.submit(USER, 1L, ParticipationStatus.GOING);
+            return null;
+        }).doNothing().when(participationService).applyQueued(any());
+
+        writeBehind.flush();
+        assertThat(writeBehind.overlay(USER, Map.of())).containsEntry(1L, ParticipationStatus.GOING);
+        writeBehind.flush();
+
+        verify(participationService, times(2)).applyQueued(any());
+        assertThat(writeBehind.overlay(USER, Map.of())).isEmpty();
+    }
+
+    private ParticipationWriteBehind writeBehind(int capacity, int maxAttempts) {
+        return new ParticipationWriteBehind(participationService, counterStore, catalogVersion,
+                new SimpleMeterRegistry(), capacity, 500, Duration.ofHours(1), maxAttempts);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<Long, Map<Long, ParticipationStatus>>> writtenBatches() {
+        ArgumentCaptor<Map<Long, Map<Long, ParticipationStatus>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(participationService, atLeastOnce()).applyQueued(captor.capture());
+        return captor.getAllValues();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.eventexplorer.service;
+
+import com.example.eventexplorer.config.AuthenticatedUser;
+import com.example.eventexplorer.model.Role;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenServiceTest {
+
+    private static final AuthenticatedUser USER = new AuthenticatedUser(7L, "amy|admin", "hash", Role.USER);
+
+    private final TokenService tokens = new TokenService("test-secret", Duration.ofHours(1));
+
+    @Test
+    void verifiesWhatItSigned() {
+        TokenService.IssuedToken issued = tokens.issue(USER);
+
+        AuthenticatedUser verified = tokens.verify(issued.getToken()).orElseThrow();
+
+        assertThat(verified.getId()).isEqualTo(7L);
+        assertThat(verified.getUsername()).isEqualTo("amy|admin");
+        assertThat(verified.getRole()).isEqualTo(Role.USER);
+        assertThat(issued.getExpiresAt()).isBetween(Instant.now().plus(Duration.ofMinutes(59)),
+                Instant.now().plus(Duration.ofHours(1)));
+    }
+
+    @Test
+    void acceptsTokensOfAnotherInstanceWithTheSameSecret() {
+        String token = new TokenService("test-secret", Duration.ofHours(1)).issue(USER).getToken();
+
+        assertThat(tokens.verify(token)).isPresent();
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherSecret() {
+        String token = new TokenService("other-secret", Duration.ofHours(1)).issue(USER).getToken();
+
+        assertThat(tokens.verify(token)).isEmpty();
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        String token = new TokenService("test-secret", Duration.ofSeconds(-1)).issue(USER).getToken();
+
+        assertThat(tokens.verify(token)).isEmpty();
+    }
+
+    @Test
+    void rejectsATamperedPayload() {
+        String token = tokens.issue(USER).getToken();
+        String signature = token.substring(token.indexOf('.'));
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+                StandardCharsets.UTF_8);
+        String promoted = payload.replace("|USER|", "|ADMIN|");
+
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(promoted.getBytes(StandardCharsets.UTF_8)) + signature;
+
+        assertThat(promoted).isNotEqualTo(payload);
+        assertThat(tokens.verify(forged)).isEmpty();
+    }
+
+    @Test
+    void rejectsATamperedSignature() {
+        String token = tokens.issue(USER).getToken();
+        // Not the last character, whose low bits are padding the decoder ignores
+        int position = token.indexOf('.') + 2;
+        char replaced = token.charAt(position) == 'A' ? 'g' : 'A';
+
+        String forged = token.substring(0, position) + replaced + token.substring(position + 1);
+
+        assertThat(tokens.verify(forged)).isEmpty();
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        String token = tokens.issue(USER).getToken();
+
+        assertThat(tokens.verify("")).isEmpty();
+        assertThat(tokens.verify("no-dot")).isEmpty();
+        assertThat(tokens.verify(token.substring(0, token.indexOf('.') + 1))).isEmpty();
+        assertThat(tokens.verify(token.substring(token.indexOf('.')))).isEmpty();
+        assertThat(tokens.verify("not*base64.sig*nature")).isEmpty();
+    }
+}
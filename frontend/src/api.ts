@@ -1,19 +1,40 @@
-import type {Event, EventRequest} from './types'
+import type {Event, EventRequest, MyStatuses, ParticipationUpdate} from './types'
 
 const API_BASE = 'http://localhost:30080'
 
 const getAuthHeader = (): Record<string, string> => {
-    const auth = localStorage.getItem('auth')
-    return auth ? {Authorization: `Basic ${auth}`} : {}
+    const token = localStorage.getItem('token')
+    return token ? {Authorization: `Bearer ${token}`} : {}
 }
 
-export const fetchEvents = async (): Promise<Event[]> => {
-    // const response = await fetch(`${API_BASE}/events`)
-    const headers: HeadersInit = {...getAuthHeader()}
-    const response = await fetch(`${API_BASE}/events`, { headers })
+export type EventPage = {
+    events: Event[]
+    nextCursor: string | null
+}
+
+// The catalog is fetched anonymously so every user shares the same cacheable response;
+// the caller's statuses come separately from fetchMyStatuses. One page per call, the next
+// one is requested with the returned cursor when the user asks for more.
+export const fetchEvents = async (cursor?: string | null): Promise<EventPage> => {
+    const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : ''
+    const response = await fetch(`${API_BASE}/events${query}`)
     if (!response.ok) throw new Error('Failed to fetch events')
+    return {events: await response.json(), nextCursor: response.headers.get('X-Next-Cursor')}
+}
+export const fetchMyStatuses = async (): Promise<MyStatuses> => {
+    const headers: HeadersInit = {...getAuthHeader()}
+    const response = await fetch(`${API_BASE}/events/participation/mine`, {headers})
+    if (!response.ok) throw new Error('Failed to fetch participation')
     return response.json()
 }
+
+export const searchEvents = async (query: string): Promise<Event[]> => {
+    const headers: HeadersInit = {...getAuthHeader()}
+    const response = await fetch(`${API_BASE}/events/search?q=${encodeURIComponent(query)}`, {headers})
+    if (!response.ok) throw new Error('Failed to search events')
+    return response.json()
+}
+
 export const removeParticipation = async (eventId: number): Promise<void> => {
     const headers: HeadersInit = {...getAuthHeader()}
 
@@ -96,18 +117,16 @@ export const markParticipation = async (
 }
 
 export const uploadImage = async (file: File): Promise<string> => {
-    const formData = new FormData()
-    formData.append('file', file)
-
     const headers: HeadersInit = {
         ...getAuthHeader(),
-        // no Content-Type here; browser sets correct multipart boundary
+        // the file is the whole body, typed with its own image type
+        'Content-Type': file.type,
     }
 
     const response = await fetch(`${API_BASE}/api/upload/image`, {
         method: 'POST',
         headers,
-        body: formData,
+        body: file,
     })
 
     if (!response.ok) {
@@ -118,3 +137,18 @@ export const uploadImage = async (file: File): Promise<string> => {
     const data = await response.json()
     return data.imageUrl
 }
+
+// The server accepts at most 200 ids per stream
+const STREAM_LIMIT = 200
+
+// One stream per page: browsers allow only a few connections per origin, so past the
+// server's limit it follows the most recently loaded events
+export const subscribeParticipationCounts = (
+    eventIds: number[],
+    onUpdate: (update: ParticipationUpdate) => void,
+): (() => void) => {
+    const ids = eventIds.slice(-STREAM_LIMIT).join(',')
+    const source = new EventSource(`${API_BASE}/events/participation/stream?ids=${ids}`)
+    source.addEventListener('counts', (e) => onUpdate(JSON.parse((e as MessageEvent).data)))
+    return () => source.close()
+}
@@ -17,33 +17,48 @@ type AuthContextType = {
 
 const AuthContext = createContext<AuthContextType | undefined>(undefined)
 
+const clearSession = () => {
+  localStorage.removeItem('user')
+  localStorage.removeItem('token')
+  localStorage.removeItem('tokenExpiresAt')
+}
+
 export const AuthProvider = ({ children }: { children: ReactNode }) => {
   const [user, setUser] = useState<{ username: string; role: 'ADMIN' | 'USER' } | null>(null)
 
   useEffect(() => {
     const storedUser = localStorage.getItem('user')
-    if (storedUser) {
+    const expiresAt = localStorage.getItem('tokenExpiresAt')
+    if (storedUser && expiresAt && new Date(expiresAt).getTime() > Date.now()) {
       setUser(JSON.parse(storedUser))
+    } else {
+      clearSession()
     }
   }, [])
 
   const login = async (username: string, password: string): Promise<boolean> => {
     try {
-      const basic = `Basic ${btoa(`${username}:${password}`)}`
-
-      const response = await fetch('http://localhost:30080/api/auth/me', {
-        headers: { Authorization: basic },
+      const response = await fetch('http://localhost:30080/api/auth/login', {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ username, password }),
       })
 
       if (!response.ok) {
         return false
       }
 
-      const data = (await response.json()) as { username: string; role: 'ADMIN' | 'USER' }
+      const data = (await response.json()) as {
+        token: string
+        expiresAt: string
+        username: string
+        role: 'ADMIN' | 'USER'
+      }
       const userData = { username: data.username, role: data.role }
       setUser(userData)
       localStorage.setItem('user', JSON.stringify(userData))
-      localStorage.setItem('auth', btoa(`${username}:${password}`))
+      localStorage.setItem('token', data.token)
+      localStorage.setItem('tokenExpiresAt', data.expiresAt)
       return true
     } catch {
       return false
@@ -72,8 +87,7 @@ export const AuthProvider = ({ children }: { children: ReactNode }) => {
 
   const logout = () => {
     setUser(null)
-    localStorage.removeItem('user')
-    localStorage.removeItem('auth')
+    clearSession()
   }
 
   return (
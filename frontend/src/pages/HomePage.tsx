@@ -2,6 +2,9 @@ import {useState, useEffect} from 'react'
 import {useAuth} from '../context/AuthContext'
 import {
     fetchEvents,
+    fetchMyStatuses,
+    searchEvents,
+    subscribeParticipationCounts,
     markParticipation,
     removeParticipation,
     createEvent,
@@ -9,28 +12,68 @@ import {
     uploadImage,
     updateEvent,
 } from '../api'
-import type {Event, EventRequest} from '../types'
+import type {Event, EventRequest, MyStatuses} from '../types'
 import EventModal from '../components/EventModal'
 
 export default function HomePage() {
     const {user, logout, isAdmin} = useAuth()
     const [events, setEvents] = useState<Event[]>([])
+    const [nextCursor, setNextCursor] = useState<string | null>(null)
     const [loading, setLoading] = useState(false)
+    const [loadingMore, setLoadingMore] = useState(false)
     const [error, setError] = useState('')
     const [filterCategory, setFilterCategory] = useState<string>('All')
+    const [query, setQuery] = useState('')
+    const [searchResults, setSearchResults] = useState<Event[] | null>(null)
     const [showModal, setShowModal] = useState(false)
     const [editingEvent, setEditingEvent] = useState<Event | null>(null)
 
+    // Reloaded when the user changes, so the status overlay follows login and logout
     useEffect(() => {
         loadEvents()
-    }, [])
+    }, [user])
+
+    useEffect(() => {
+        if (!query.trim()) {
+            setSearchResults(null)
+            return
+        }
+        const timer = setTimeout(() => {
+            searchEvents(query)
+                .then(setSearchResults)
+                .catch((err: any) => setError(err.message || 'Failed to search events'))
+        }, 250)
+        return () => clearTimeout(timer)
+    }, [query])
+
+    const eventIds = events.map((e) => e.id).join(',')
+
+    useEffect(() => {
+        if (!eventIds) return
+        return subscribeParticipationCounts(eventIds.split(',').map(Number), (update) => {
+            setEvents((current) =>
+                current.map((e) =>
+                    e.id === update.eventId
+                        ? {...e, interestedCount: update.interestedCount, goingCount: update.goingCount}
+                        : e,
+                ),
+            )
+        })
+    }, [eventIds])
+
+    const withStatuses = (page: Event[], statuses: MyStatuses) =>
+        page.map((e) => ({...e, myStatus: statuses[e.id] ?? null}))
 
     const loadEvents = async () => {
         try {
             setLoading(true)
             setError('')
-            const data = await fetchEvents()
-            setEvents(data)
+            const [page, statuses] = await Promise.all([
+                fetchEvents(),
+                user ? fetchMyStatuses() : Promise.resolve({} as MyStatuses),
+            ])
+            setEvents(withStatuses(page.events, statuses))
+            setNextCursor(page.nextCursor)
         } catch (err: any) {
             setError(err.message || 'Failed to load events')
         } finally {
@@ -38,6 +81,30 @@ export default function HomePage() {
         }
     }
 
+    const loadMore = async () => {
+        if (!nextCursor) return
+        try {
+            setLoadingMore(true)
+            setError('')
+            const [page, statuses] = await Promise.all([
+                fetchEvents(nextCursor),
+                user ? fetchMyStatuses() : Promise.resolve({} as MyStatuses),
+            ])
+            setEvents((current) => [...current, ...withStatuses(page.events, statuses)])
+            setNextCursor(page.nextCursor)
+        } catch (err: any) {
+            setError(err.message || 'Failed to load events')
+        } finally {
+            setLoadingMore(false)
+        }
+    }
+
+    // Only the caller's statuses change; counts arrive over the participation stream
+    const refreshStatuses = async () => {
+        const statuses = await fetchMyStatuses()
+        setEvents((current) => withStatuses(current, statuses))
+    }
+
     const handleParticipation = async (
         eventId: number,
         status: 'INTERESTED' | 'GOING',
@@ -56,7 +123,7 @@ export default function HomePage() {
             } else {
                 await markParticipation(eventId, status)
             }
-            await loadEvents()
+            await refreshStatuses()
         } catch (err: any) {
             setError(err.message || 'Failed to update participation')
         }
@@ -97,10 +164,14 @@ export default function HomePage() {
         }
     }
 
+    // Search results in rank order, showing the loaded copy so counts and statuses stay live
+    const byId = new Map(events.map((e) => [e.id, e]))
+    const shownEvents = searchResults ? searchResults.map((e) => byId.get(e.id) ?? e) : events
+
     const filteredEvents =
         filterCategory === 'All'
-            ? events
-            : events.filter((e) => e.category === filterCategory)
+            ? shownEvents
+            : shownEvents.filter((e) => e.category === filterCategory)
 
     return (
         <div className="min-vh-100 bg-light">
@@ -150,6 +221,13 @@ export default function HomePage() {
 
                 <div className="d-flex justify-content-between align-items-center mb-4">
                     <h1 className="h3 mb-0">Upcoming Events</h1>
+                    <input
+                        type="search"
+                        className="form-control form-control-sm w-auto"
+                        placeholder="Search events"
+                        value={query}
+                        onChange={(e) => setQuery(e.target.value)}
+                    />
                     <div className="btn-group" role="group">
                         {['All', 'Concert', 'Exhibition', 'Theater'].map((cat) => (
                             <button
@@ -194,7 +272,12 @@ export default function HomePage() {
                                 <div className="card h-100 shadow-sm">
                                     {event.imageUrl && (
                                         <img
-                                            src={`http://localhost:30080${event.imageUrl}`}
+                                            src={`http://localhost:30080${event.imageVariants?.[0]?.url ?? event.imageUrl}`}
+                                            srcSet={event.imageVariants
+                                                ?.map((v) => `http://localhost:30080${v.url} ${v.width}w`)
+                                                .join(', ')}
+                                            sizes="(min-width: 992px) 33vw, (min-width: 768px) 50vw, 100vw"
+                                            loading="lazy"
                                             className="card-img-top"
                                             alt={event.title}
                                             style={{height: '200px', objectFit: 'cover'}}
@@ -286,6 +369,14 @@ export default function HomePage() {
                         ))}
                     </div>
                 )}
+
+                {!loading && nextCursor && !searchResults && (
+                    <div className="text-center mt-4">
+                        <button className="btn btn-outline-primary" onClick={loadMore} disabled={loadingMore}>
+                            {loadingMore ? 'Loading...' : 'Load more'}
+                        </button>
+                    </div>
+                )}
             </main>
 
             {isAdmin && (
@@ -6,11 +6,25 @@ export type Event = {
   location: string
   category: string
   imageUrl?: string
+  imageVariants?: ImageVariant[]
   interestedCount: number
   goingCount: number
   myStatus?: 'INTERESTED' | 'GOING' | null
 }
 
+export type ImageVariant = {
+  width: number
+  url: string
+}
+
+export type ParticipationUpdate = {
+  eventId: number
+  interestedCount: number
+  goingCount: number
+}
+
+export type MyStatuses = Record<number, 'INTERESTED' | 'GOING'>
+
 export type EventRequest = {
   title: string
   description: string